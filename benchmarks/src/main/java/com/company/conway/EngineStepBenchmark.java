@@ -0,0 +1,108 @@
+package com.company.conway;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of the generations and cells per second of the Game Of Life engines.
+ * <p>
+ *     Every engine evolves the same {@code size x size} board with the Conway's rule: a random soup of
+ *     the given density, or the glider gun of {@code ConwayGOL} or the beacon of {@code Main} at the centre
+ *     of an empty board, built by {@link EngineBenchmark#board(String, int, double)}. The density only
+ *     applies to the soups, so narrow it with {@code -p density=0.35} when measuring the standard seeds.
+ *     The engine is created again before every iteration, so all the iterations measure the same
+ *     generations of the board.
+ * <p>
+ *     {@link #step(Cells)} measures single generations; {@link #advance(Cells)} measures runs of
+ *     {@value #GENERATIONS} generations, where the engines skipping generations, like HashLife, pay off.
+ *     Both report one operation per generation, and the secondary {@code cells} result reports the
+ *     cells per second, the generations per second times the board area.
+ * <p>
+ *     Run with {@code java -jar benchmarks/target/benchmarks.jar}, adding {@code -prof gc} for the bytes
+ *     allocated per generation, and for example {@code -p engine=bitwise,sparse -p pattern=gun} to narrow
+ *     the cases. The {@code vector} engine only uses its SIMD kernel with
+ *     {@code -jvmArgsAppend "--add-modules jdk.incubator.vector -Dconway.vector=true"}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineStepBenchmark {
+    // Number of generations of an advance
+    static final int GENERATIONS = 64;
+
+    @Param({"bitset", "torus", "klein", "free", "block", "conway", "bitwise", "parallel", "vector", "mapped",
+            "sparse", "hashlife"})
+    public String engine;
+
+    @Param({"random", "gun", "beacon"})
+    public String pattern;
+
+    @Param({"64", "256", "1024"})
+    public int size;
+
+    @Param({"0.1", "0.35", "0.5"})
+    public double density;
+
+    private byte[][] board;
+
+    // The cells evolved by a generation, 0 for an unbounded engine
+    private long area;
+
+    private LifeEngine life;
+
+    @Setup(Level.Trial)
+    public void createBoard() {
+        board = EngineBenchmark.board(pattern, size, density);
+    }
+
+    @Setup(Level.Iteration)
+    public void createEngine() {
+        life = EngineType.fromKey(engine).create(board);
+        area = life.isBounded() ? (long) size * size : 0;
+    }
+
+    @Benchmark
+    public void step(final Cells counter) {
+        life.step();
+        counter.cells += area;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GENERATIONS)
+    public void advance(final Cells counter) {
+        life.advance(GENERATIONS);
+        counter.cells += GENERATIONS * area;
+    }
+
+    /**
+     * The cells evolved, reported per second. They are only counted for the bounded engines: the
+     * unbounded ones evolve a plane growing with the pattern rather than the board, and report 0.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Cells {
+        public long cells;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            cells = 0;
+        }
+    }
+}
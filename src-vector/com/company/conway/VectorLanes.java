@@ -0,0 +1,143 @@
+package com.company.conway;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link VectorKernel} of {@link VectorGameOfLife} on the incubating vector API.
+ * <p>
+ *     Each run of words is loaded into the lanes of a {@link LongVector} and the full-adder logic of
+ *     {@link BitKernel} is applied lane-wise: an AVX-512 machine evolves 8 words, 512 cells, with every
+ *     vector instruction. This class is compiled on its own with {@code --add-modules jdk.incubator.vector}
+ *     and only loaded by reflection, so the rest of the sources build with a plain {@code javac}.
+ */
+final class VectorLanes implements VectorKernel {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public int getLanes() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public int evolveRow(final long[] cur, final long[] next, final int c, final int stride,
+                         final int wordsPerRow) {
+        final int n = c - stride;
+        final int s = c + stride;
+        int k = 0;
+        for (; k + SPECIES.length() <= wordsPerRow; k += SPECIES.length()) {
+            // The lanes of the west and east vectors are the west and east neighbours of the words
+            LongVector nc = LongVector.fromArray(SPECIES, cur, n + k);
+            LongVector cc = LongVector.fromArray(SPECIES, cur, c + k);
+            LongVector sc = LongVector.fromArray(SPECIES, cur, s + k);
+            LongVector nWest = nc.lanewise(VectorOperators.LSHL, 1)
+                    .or(LongVector.fromArray(SPECIES, cur, n + k - 1).lanewise(VectorOperators.LSHR, 63));
+            LongVector nEast = nc.lanewise(VectorOperators.LSHR, 1)
+                    .or(LongVector.fromArray(SPECIES, cur, n + k + 1).lanewise(VectorOperators.LSHL, 63));
+            LongVector cWest = cc.lanewise(VectorOperators.LSHL, 1)
+                    .or(LongVector.fromArray(SPECIES, cur, c + k - 1).lanewise(VectorOperators.LSHR, 63));
+            LongVector cEast = cc.lanewise(VectorOperators.LSHR, 1)
+                    .or(LongVector.fromArray(SPECIES, cur, c + k + 1).lanewise(VectorOperators.LSHL, 63));
+            LongVector sWest = sc.lanewise(VectorOperators.LSHL, 1)
+                    .or(LongVector.fromArray(SPECIES, cur, s + k - 1).lanewise(VectorOperators.LSHR, 63));
+            LongVector sEast = sc.lanewise(VectorOperators.LSHR, 1)
+                    .or(LongVector.fromArray(SPECIES, cur, s + k + 1).lanewise(VectorOperators.LSHL, 63));
+
+            // Full adders on the north and south triples, half adder on the current pair
+            LongVector nXor = nWest.lanewise(VectorOperators.XOR, nc);
+            LongVector nSum = nXor.lanewise(VectorOperators.XOR, nEast);
+            LongVector nCarry = nWest.and(nc).or(nEast.and(nXor));
+            LongVector sXor = sWest.lanewise(VectorOperators.XOR, sc);
+            LongVector sSum = sXor.lanewise(VectorOperators.XOR, sEast);
+            LongVector sCarry = sWest.and(sc).or(sEast.and(sXor));
+            LongVector cSum = cWest.lanewise(VectorOperators.XOR, cEast);
+            LongVector cCarry = cWest.and(cEast);
+
+            // Ones bit of the total plus the carry it produces into the twos column
+            LongVector ncXor = nSum.lanewise(VectorOperators.XOR, cSum);
+            LongVector ones = ncXor.lanewise(VectorOperators.XOR, sSum);
+            LongVector onesCarry = nSum.and(cSum).or(sSum.and(ncXor));
+
+            // The rule only needs to know whether exactly one of the four twos is set
+            LongVector p = nCarry.lanewise(VectorOperators.XOR, cCarry);
+            LongVector q = nCarry.and(cCarry);
+            LongVector r = sCarry.lanewise(VectorOperators.XOR, onesCarry);
+            LongVector t = sCarry.and(onesCarry);
+            LongVector exactlyOneTwo = p.lanewise(VectorOperators.XOR, r).and(q.or(t).not());
+
+            // 2 neighbours keeps a live cell alive, 3 neighbours makes any cell alive
+            exactlyOneTwo.and(ones.or(cc)).intoArray(next, c + k);
+        }
+        return k;
+    }
+
+    @Override
+    public int evolveRow(final long[] cur, final long[] next, final int c, final int stride,
+                         final int wordsPerRow, final Rule rule) {
+        final int n = c - stride;
+        final int s = c + stride;
+        final long[] masks = rule.getCountMasks();
+        int k = 0;
+        for (; k + SPECIES.length() <= wordsPerRow; k += SPECIES.length()) {
+            LongVector nc = LongVector.fromArray(SPECIES, cur, n + k);
+            LongVector cc = LongVector.fromArray(SPECIES, cur, c + k);
+            LongVector sc = LongVector.fromArray(SPECIES, cur, s + k);
+            LongVector nWest = nc.lanewise(VectorOperators.LSHL, 1)
+                    .or(LongVector.fromArray(SPECIES, cur, n + k - 1).lanewise(VectorOperators.LSHR, 63));
+            LongVector nEast = nc.lanewise(VectorOperators.LSHR, 1)
+                    .or(LongVector.fromArray(SPECIES, cur, n + k + 1).lanewise(VectorOperators.LSHL, 63));
+            LongVector cWest = cc.lanewise(VectorOperators.LSHL, 1)
+                    .or(LongVector.fromArray(SPECIES, cur, c + k - 1).lanewise(VectorOperators.LSHR, 63));
+            LongVector cEast = cc.lanewise(VectorOperators.LSHR, 1)
+                    .or(LongVector.fromArray(SPECIES, cur, c + k + 1).lanewise(VectorOperators.LSHL, 63));
+            LongVector sWest = sc.lanewise(VectorOperators.LSHL, 1)
+                    .or(LongVector.fromArray(SPECIES, cur, s + k - 1).lanewise(VectorOperators.LSHR, 63));
+            LongVector sEast = sc.lanewise(VectorOperators.LSHR, 1)
+                    .or(LongVector.fromArray(SPECIES, cur, s + k + 1).lanewise(VectorOperators.LSHL, 63));
+
+            LongVector nXor = nWest.lanewise(VectorOperators.XOR, nc);
+            LongVector nSum = nXor.lanewise(VectorOperators.XOR, nEast);
+            LongVector nCarry = nWest.and(nc).or(nEast.and(nXor));
+            LongVector sXor = sWest.lanewise(VectorOperators.XOR, sc);
+            LongVector sSum = sXor.lanewise(VectorOperators.XOR, sEast);
+            LongVector sCarry = sWest.and(sc).or(sEast.and(sXor));
+            LongVector cSum = cWest.lanewise(VectorOperators.XOR, cEast);
+            LongVector cCarry = cWest.and(cEast);
+
+            LongVector ncXor = nSum.lanewise(VectorOperators.XOR, cSum);
+            LongVector ones = ncXor.lanewise(VectorOperators.XOR, sSum);
+            LongVector onesCarry = nSum.and(cSum).or(sSum.and(ncXor));
+
+            // Add the four twos, then the three fours they produce, into the remaining bit planes
+            LongVector p = nCarry.lanewise(VectorOperators.XOR, cCarry);
+            LongVector q = nCarry.and(cCarry);
+            LongVector r = sCarry.lanewise(VectorOperators.XOR, onesCarry);
+            LongVector t = sCarry.and(onesCarry);
+            LongVector twos = p.lanewise(VectorOperators.XOR, r);
+            LongVector u = p.and(r);
+            LongVector qXorT = q.lanewise(VectorOperators.XOR, t);
+            LongVector fours = qXorT.lanewise(VectorOperators.XOR, u);
+            LongVector eights = q.and(t).or(u.and(qXorT));
+
+            // The next states by count from the broadcast count masks, selected by the bit planes as in BitKernel
+            LongVector dead = cc.not();
+            LongVector[] states = new LongVector[9];
+            for (int count = 0; count <= 8; count++) {
+                states[count] = dead.and(masks[count]).or(cc.and(masks[9 + count]));
+            }
+            LongVector low = select(fours,
+                    select(twos, select(ones, states[0], states[1]), select(ones, states[2], states[3])),
+                    select(twos, select(ones, states[4], states[5]), select(ones, states[6], states[7])));
+            select(eights, low, states[8]).intoArray(next, c + k);
+        }
+        return k;
+    }
+
+    /**
+     * @return The lanes of {@code set} where {@code selector} is set, the lanes of {@code clear} elsewhere
+     */
+    private static LongVector select(final LongVector selector, final LongVector clear, final LongVector set) {
+        return clear.lanewise(VectorOperators.BITWISE_BLEND, set, selector);
+    }
+}
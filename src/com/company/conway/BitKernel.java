@@ -0,0 +1,136 @@
+package com.company.conway;
+
+/**
+ * Bit-sliced evolution kernel shared by the word based engines.
+ * <p>
+ *     A {@code long} word holds 64 horizontally adjacent cells, bit {@code b} of the word
+ *     being the cell at column {@code 64 * k + b}. The kernel counts the eight neighbours
+ *     of all 64 cells at once with full-adder logic and applies the rule to the
+ *     resulting bit planes, so a word of the next generation costs a few dozen
+ *     bitwise operations instead of 64 neighbour loops. The Conway's rule has a dedicated
+ *     kernel only telling apart 2 and 3 neighbours, the other rules get the four bit planes
+ *     of the count and pick the next state of every cell from the count masks of the rule,
+ *     with a tree of bitwise selections driven by the bit planes rather than a loop over the counts.
+ */
+final class BitKernel {
+
+    private BitKernel() {
+    }
+
+    /**
+     * Compute the next generation of the word {@code c} from its 3x3 word neighbourhood.
+     * <p>
+     *     {@code n}, {@code c} and {@code s} are the words at the same column of the row above,
+     *     the current row and the row below. The words suffixed with {@code w} and {@code e}
+     *     are their west (lower columns) and east (higher columns) neighbours, only the carry
+     *     bit crossing the word boundary is used from them.
+     *
+     * @return The next state of the 64 cells held by {@code c}
+     */
+    static long evolve(final long nw, final long n, final long ne,
+                       final long w, final long c, final long e,
+                       final long sw, final long s, final long se) {
+        // Align the west and east neighbours of every cell with the cell itself
+        long nWest = (n << 1) | (nw >>> 63);
+        long nEast = (n >>> 1) | (ne << 63);
+        long cWest = (c << 1) | (w >>> 63);
+        long cEast = (c >>> 1) | (e << 63);
+        long sWest = (s << 1) | (sw >>> 63);
+        long sEast = (s >>> 1) | (se << 63);
+
+        // Full adders on the north and south triples, half adder on the current pair
+        long nSum = nWest ^ n ^ nEast;
+        long nCarry = (nWest & n) | (nEast & (nWest ^ n));
+        long sSum = sWest ^ s ^ sEast;
+        long sCarry = (sWest & s) | (sEast & (sWest ^ s));
+        long cSum = cWest ^ cEast;
+        long cCarry = cWest & cEast;
+
+        // Ones bit of the total plus the carry it produces into the twos column
+        long ones = nSum ^ cSum ^ sSum;
+        long onesCarry = (nSum & cSum) | (sSum & (nSum ^ cSum));
+
+        // The rule only needs to know whether exactly one of the four twos is set
+        long p = nCarry ^ cCarry;
+        long q = nCarry & cCarry;
+        long r = sCarry ^ onesCarry;
+        long t = sCarry & onesCarry;
+        long exactlyOneTwo = (p ^ r) & ~(q | t);
+
+        // 2 neighbours keeps a live cell alive, 3 neighbours makes any cell alive
+        return exactlyOneTwo & (ones | c);
+    }
+
+    /**
+     * Compute the next generation of the word {@code c} from its 3x3 word neighbourhood under the given rule.
+     *
+     * @return The next state of the 64 cells held by {@code c}
+     * @see #evolve(long, long, long, long, long, long, long, long, long)
+     */
+    static long evolve(final Rule rule,
+                       final long nw, final long n, final long ne,
+                       final long w, final long c, final long e,
+                       final long sw, final long s, final long se) {
+        // Kept small so it is inlined into the loops of the engines, with the Conway's kernel
+        return rule.isConway() ? evolve(nw, n, ne, w, c, e, sw, s, se)
+                : evolveCounts(rule, nw, n, ne, w, c, e, sw, s, se);
+    }
+
+    private static long evolveCounts(final Rule rule,
+                                     final long nw, final long n, final long ne,
+                                     final long w, final long c, final long e,
+                                     final long sw, final long s, final long se) {
+        long nWest = (n << 1) | (nw >>> 63);
+        long nEast = (n >>> 1) | (ne << 63);
+        long cWest = (c << 1) | (w >>> 63);
+        long cEast = (c >>> 1) | (e << 63);
+        long sWest = (s << 1) | (sw >>> 63);
+        long sEast = (s >>> 1) | (se << 63);
+
+        long nSum = nWest ^ n ^ nEast;
+        long nCarry = (nWest & n) | (nEast & (nWest ^ n));
+        long sSum = sWest ^ s ^ sEast;
+        long sCarry = (sWest & s) | (sEast & (sWest ^ s));
+        long cSum = cWest ^ cEast;
+        long cCarry = cWest & cEast;
+
+        long ones = nSum ^ cSum ^ sSum;
+        long onesCarry = (nSum & cSum) | (sSum & (nSum ^ cSum));
+
+        // Add the four twos, then the three fours they produce, into the remaining bit planes
+        long p = nCarry ^ cCarry;
+        long q = nCarry & cCarry;
+        long r = sCarry ^ onesCarry;
+        long t = sCarry & onesCarry;
+        long twos = p ^ r;
+        long u = p & r;
+        long fours = q ^ t ^ u;
+        long eights = (q & t) | (u & (q ^ t));
+
+        // The next state of every cell for each count, then narrowed down by the bit planes from the ones
+        long[] masks = rule.getCountMasks();
+        long dead = ~c;
+        long next0 = (dead & masks[0]) | (c & masks[9]);
+        long next1 = (dead & masks[1]) | (c & masks[10]);
+        long next2 = (dead & masks[2]) | (c & masks[11]);
+        long next3 = (dead & masks[3]) | (c & masks[12]);
+        long next4 = (dead & masks[4]) | (c & masks[13]);
+        long next5 = (dead & masks[5]) | (c & masks[14]);
+        long next6 = (dead & masks[6]) | (c & masks[15]);
+        long next7 = (dead & masks[7]) | (c & masks[16]);
+        long next8 = (dead & masks[8]) | (c & masks[17]);
+
+        long low = select(fours,
+                select(twos, select(ones, next0, next1), select(ones, next2, next3)),
+                select(twos, select(ones, next4, next5), select(ones, next6, next7)));
+        // The eights plane is only set with 8 neighbours, the other planes being clear
+        return select(eights, low, next8);
+    }
+
+    /**
+     * @return The bits of {@code set} where {@code selector} is set, the bits of {@code clear} elsewhere
+     */
+    private static long select(final long selector, final long clear, final long set) {
+        return clear ^ (selector & (clear ^ set));
+    }
+}
@@ -0,0 +1,379 @@
+package com.company.conway;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Word-parallel variant of {@link GameOfLife}.
+ * <p>
+ *     Each row of the grid is stored as {@code long} words, 64 cells per word,
+ *     and the next generation is computed one word at a time by {@link BitKernel}.
+ *     The grid is bounded in the same way as {@link GameOfLife}: cells outside
+ *     of the seed rectangle are always dead.
+ * <p>
+ *     Rows are laid out with one zero padding row above and below the grid
+ *     and one zero padding word at the end of every row, so the inner loop
+ *     reads its neighbours without any boundary check.
+ * <p>
+ *     In the parallel mode the rows are split into bands evolved on a {@link ForkJoinPool}.
+ *     Every task only reads the current generation and only writes the rows of its own
+ *     band in the next generation, so the tasks never share a word they write to.
+ *     The pool is shared by all the engines of the same parallelism: its workers are daemon
+ *     threads ending once idle, so the engines need not be closed.
+ */
+class BitwiseGameOfLife implements LifeEngine {
+    // Minimum number of rows evolved by a single task of the parallel mode
+    private static final int MINIMUM_BAND_ROWS = 16;
+
+    // Pools of the parallel mode by parallelism, created on first use
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<Integer, ForkJoinPool>();
+
+    // Storing state of the current generation system
+    private long[] currentGeneration;
+
+    // Using to store temporarily the state of the next generation
+    // to avoid allocating new generation at each step time
+    private long[] tempGeneration;
+
+    final private int horizontal;
+
+    final private int vertical;
+
+    // Number of words holding the cells of a row
+    final private int wordsPerRow;
+
+    // Distance between two consecutive rows in the word arrays (including the padding word)
+    final private int stride;
+
+    // Mask of the columns inside the grid for the last word of a row
+    final private long lastWordMask;
+
+    // Shared pool evolving the bands of rows, null in the sequential mode
+    final private ForkJoinPool pool;
+
+    // Number of rows below which a band is evolved without splitting it further
+    final private int bandRows;
+
+    final private Rule rule;
+
+    private long generation;
+
+    // Receivers of the changed cells
+    final private CellListeners listeners = new CellListeners();
+
+    /**
+     * Initialize the current state of the system with a given seed.
+     *
+     * @param seedOfTheSystem   seed of the system
+     * @throws UnsupportedOperationException throw {@link UnsupportedOperationException}
+     *          if the input {@code null} value for {@code seedOfTheSystem}
+     */
+    public BitwiseGameOfLife(final byte[][] seedOfTheSystem) {
+        this(seedOfTheSystem, 1);
+    }
+
+    /**
+     * Initialize the current state of the system with a given seed
+     * and the number of threads evolving each generation.
+     *
+     * @param seedOfTheSystem   seed of the system
+     * @param parallelism the number of worker threads, {@code 1} for the sequential mode
+     * @throws UnsupportedOperationException throw {@link UnsupportedOperationException}
+     *          if the input {@code null} value for {@code seedOfTheSystem}
+     * @throws IllegalArgumentException if {@code parallelism} is less than 1
+     */
+    public BitwiseGameOfLife(final byte[][] seedOfTheSystem, final int parallelism) {
+        this(Pattern.fromSeed(seedOfTheSystem), parallelism);
+    }
+
+    /**
+     * Initialize the current state of the system with the live cells of a pattern.
+     *
+     * @param pattern the pattern of the seed, its grid being the grid of the system
+     */
+    BitwiseGameOfLife(final Pattern pattern) {
+        this(pattern, 1);
+    }
+
+    /**
+     * Initialize the current state of the system with the live cells of a pattern
+     * and the number of threads evolving each generation.
+     *
+     * @param pattern the pattern of the seed, its grid being the grid of the system
+     * @param parallelism the number of worker threads, {@code 1} for the sequential mode
+     * @throws IllegalArgumentException if {@code parallelism} is less than 1
+     *          or the grid does not fit in a single array
+     */
+    BitwiseGameOfLife(final Pattern pattern, final int parallelism) {
+        this(pattern.getVertical(), pattern.getHorizontal(), null, parallelism, pattern.getRule());
+        setCurrentGeneration(pattern);
+    }
+
+    /**
+     * Restore a system from the words of a checkpoint.
+     *
+     * @param vertical The number of rows of the grid
+     * @param horizontal The number of columns of the grid
+     * @param words The words of the current generation, as returned by {@link #getWords()}, which
+     *              become the words of the engine without being copied
+     * @param generation The number of generations evolved since the seed
+     * @param rule The rule the system evolves with
+     * @throws IllegalArgumentException if the number of words does not match the grid
+     */
+    BitwiseGameOfLife(final int vertical, final int horizontal, final long[] words, final long generation,
+                      final Rule rule) {
+        this(vertical, horizontal, words, 1, rule);
+        this.generation = generation;
+    }
+
+    private BitwiseGameOfLife(final int vertical, final int horizontal, final long[] words, final int parallelism,
+                              final Rule rule) {
+        if (parallelism < 1 || vertical < 1 || horizontal < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.rule = rule;
+
+        this.vertical = vertical;
+        this.horizontal = horizontal;
+        if ((long) (vertical + 2) * ((horizontal + 63) / 64 + 1) > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException();
+        }
+
+        wordsPerRow = (horizontal + 63) >>> 6;
+        stride = wordsPerRow + 1;
+        lastWordMask = (horizontal & 63) == 0 ? -1L : (1L << (horizontal & 63)) - 1;
+
+        if (words != null && words.length != (vertical + 2) * stride) {
+            throw new IllegalArgumentException();
+        }
+        currentGeneration = words != null ? words : new long[(vertical + 2) * stride];
+        tempGeneration = new long[(vertical + 2) * stride];
+
+        // A few bands per worker lets the work stealing even out the load
+        bandRows = Math.max(MINIMUM_BAND_ROWS, (vertical + 4 * parallelism - 1) / (4 * parallelism));
+        pool = parallelism > 1 && vertical > bandRows ? POOLS.computeIfAbsent(parallelism, ForkJoinPool::new) : null;
+    }
+
+    /**
+     * Transition to the next generation by applying the {@link Rule} of the system.
+     */
+    public void nextGeneration() {
+        if (pool == null) {
+            evolveRows(0, vertical);
+        } else {
+            pool.invoke(new EvolveBand(0, vertical));
+        }
+        // The changes are reported from the calling thread, even when the bands were evolved in parallel
+        if (!listeners.isEmpty()) {
+            reportChanges(currentGeneration, tempGeneration);
+        }
+        // Swap the next generation to the current generation for the next step time
+        long[] words = currentGeneration;
+        currentGeneration = tempGeneration;
+        tempGeneration = words;
+        generation++;
+    }
+
+    @Override
+    public void step() {
+        nextGeneration();
+    }
+
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return The words of the current generation, row after row with a zero row above and below
+     *          the grid and a zero word at the end of each row; they must not be modified
+     */
+    long[] getWords() {
+        return currentGeneration;
+    }
+
+    int getVertical() {
+        return vertical;
+    }
+
+    int getHorizontal() {
+        return horizontal;
+    }
+
+    @Override
+    public long getPopulation() {
+        long population = 0;
+        for (long word : currentGeneration) {
+            population += Long.bitCount(word);
+        }
+        return population;
+    }
+
+    /**
+     * Compute the next generation of a band of rows into {@code tempGeneration}.
+     *
+     * @param from The first row of the band
+     * @param to The row after the last row of the band
+     */
+    private void evolveRows(final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            evolveRow(i);
+        }
+    }
+
+    /**
+     * Compute the next generation of a single row into {@code tempGeneration}.
+     *
+     * @param row The row of the grid to evolve
+     */
+    private void evolveRow(final int row) {
+        final long[] cur = currentGeneration;
+        final int c = (row + 1) * stride;
+        final int n = c - stride;
+        final int s = c + stride;
+
+        // Sliding 3x3 window of words, the west column starts on the (dead) outside of the grid
+        long nw = 0, w = 0, sw = 0;
+        long nc = cur[n], cc = cur[c], sc = cur[s];
+        for (int k = 0; k < wordsPerRow; k++) {
+            // The padding word at the end of the row makes k + 1 always readable
+            long ne = cur[n + k + 1];
+            long ce = cur[c + k + 1];
+            long se = cur[s + k + 1];
+
+            tempGeneration[c + k] = BitKernel.evolve(rule, nw, nc, ne, w, cc, ce, sw, sc, se);
+
+            nw = nc;
+            nc = ne;
+            w = cc;
+            cc = ce;
+            sw = sc;
+            sc = se;
+        }
+        tempGeneration[c + wordsPerRow - 1] &= lastWordMask;
+    }
+
+    /**
+     * Check whether the given cell is alive in the current generation.
+     *
+     * @param x The x position of the cell
+     * @param y The y position of the cell
+     * @return {@code true} if the cell is alive; otherwise {@code false}
+     */
+    @Override
+    public boolean isAlive(final long x, final long y) {
+        if (x < 0 || x >= vertical || y < 0 || y >= horizontal) {
+            return false;
+        }
+        return (currentGeneration[getIndex((int) x, (int) y)] & (1L << y)) != 0;
+    }
+
+    @Override
+    public void addCellListener(final CellListener listener) {
+        listeners.add(listener);
+        for (int i = 0; i < vertical; i++) {
+            int c = getIndex(i, 0);
+            for (int k = 0; k < wordsPerRow; k++) {
+                listener.wordChanged(i, (long) k << 6, 0, currentGeneration[c + k]);
+            }
+        }
+    }
+
+    @Override
+    public void removeCellListener(final CellListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Report the cells which differ between two generations to the listeners.
+     *
+     * @param before The words of the first generation
+     * @param after The words of the second generation
+     */
+    private void reportChanges(final long[] before, final long[] after) {
+        for (int i = 0; i < vertical; i++) {
+            int c = getIndex(i, 0);
+            for (int k = 0; k < wordsPerRow; k++) {
+                if (before[c + k] != after[c + k]) {
+                    listeners.wordChanged(i, (long) k << 6, before[c + k], after[c + k]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculate the index of the word holding the given cell.
+     *
+     * @param x The x position of the cell
+     * @param y The y position of the cell
+     * @return The index of the word of the cell in the word arrays
+     */
+    private int getIndex(final int x, final int y) {
+        return (x + 1) * stride + (y >>> 6);
+    }
+
+    /**
+     * Set the current state of the system from given pattern.
+     *
+     * @param pattern  pattern of the seed of the system
+     */
+    private void setCurrentGeneration(final Pattern pattern) {
+        for (int i = 0; i < pattern.size(); i++) {
+            int y = pattern.y(i);
+            currentGeneration[getIndex(pattern.x(i), y)] |= 1L << y;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < vertical; i++) {
+            for (int j = 0; j < horizontal; j++) {
+                if ((currentGeneration[getIndex(i, j)] & (1L << j)) != 0) {
+                    // Present the live cell by black square character
+                    builder.append("◾");
+                } else {
+                    // Present the dead cell by white square character
+                    builder.append("◽");
+                }
+            }
+            builder.append("\n");
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Task evolving a band of rows, split in halves until it is small enough.
+     */
+    private final class EvolveBand extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+
+        private final int to;
+
+        EvolveBand(final int from, final int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= bandRows) {
+                evolveRows(from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new EvolveBand(from, middle), new EvolveBand(middle, to));
+            }
+        }
+    }
+}
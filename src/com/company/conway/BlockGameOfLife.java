@@ -0,0 +1,389 @@
+package com.company.conway;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Block variant of {@link GameOfLife}, evolving 2x2 blocks of cells by table lookups.
+ * <p>
+ *     The grid is stored as 2x2 blocks of cells, each block a nibble whose bit {@code 2 * row + column}
+ *     is the cell at that position in the block, packed 16 blocks per {@code long} word along a row of
+ *     blocks. Four blocks forming a 4x4 square of cells hold all the neighbours of its 2x2 centre, so
+ *     the next generation of that centre is read from a table of the 65536 squares, computed once per
+ *     rule and shared by its engines. The centre being one cell south east of the square, the blocks of
+ *     the next generation are shifted by one cell from the blocks of the current one: the grid alternates
+ *     between blocks aligned on even positions and blocks aligned on odd positions, the odd generations
+ *     being computed from the blocks north west of the even ones so the shift goes back.
+ * <p>
+ *     The grid is bounded in the same way as {@link GameOfLife}: cells outside of the seed rectangle are
+ *     always dead. The blocks of the grid are surrounded by dead blocks, which also hold the cells next
+ *     to the grid in the shifted layout, so the squares never read outside of the arrays; the cells
+ *     outside of the grid are cleared with a mask after every generation. Words made only of dead blocks
+ *     are skipped, the rules with {@code B0} not being supported.
+ */
+class BlockGameOfLife implements LifeEngine {
+    // Cells of the upper row of every block of a word
+    private static final long UPPER_ROW = 0x3333333333333333L;
+
+    // Cells of the lower row of every block of a word
+    private static final long LOWER_ROW = 0xCCCCCCCCCCCCCCCCL;
+
+    // Cells of the west column of every block of a word
+    private static final long WEST_COLUMN = 0x5555555555555555L;
+
+    // Cells of the east column of every block of a word
+    private static final long EAST_COLUMN = 0xAAAAAAAAAAAAAAAAL;
+
+    // Storing state of the current generation system
+    private long[] currentGeneration;
+
+    // Using to store temporarily the state of the next generation
+    // to avoid allocating new generation at each step time
+    private long[] tempGeneration;
+
+    final private int horizontal;
+
+    final private int vertical;
+
+    // Number of rows of blocks, including the dead ones above and below the grid
+    final private int blockRows;
+
+    // Number of words holding the blocks of a row of blocks
+    final private int stride;
+
+    // The tables of the rules already used, by code of the rule, shared by the engines and never modified
+    private static final Map<Integer, byte[]> TABLES = new ConcurrentHashMap<Integer, byte[]>();
+
+    // The next 2x2 centre of every 4x4 square: blocks north west, north east, south west
+    // and south east of the square in the nibbles 0 to 3 of the index
+    final private byte[] table;
+
+    // Cells inside the grid of every row of blocks and every word of a row, by shift of the blocks
+    final private long[][] rowMasks = new long[2][];
+
+    final private long[][] columnMasks = new long[2][];
+
+    final private Rule rule;
+
+    private long generation;
+
+    // 0 if the block of index (r, c) holds the cells from (2 * r - 4, 2 * c - 4), 1 if it holds them from one cell south east
+    private int shift;
+
+    // Words of 64 cells of a row of the grid, before and after a generation, to report the changes
+    final private long[] before;
+
+    final private long[] after;
+
+    // Receivers of the changed cells
+    final private CellListeners listeners = new CellListeners();
+
+    /**
+     * Initialize the current state of the system with a given seed.
+     *
+     * @param seedOfTheSystem   seed of the system
+     * @throws UnsupportedOperationException throw {@link UnsupportedOperationException}
+     *          if the input {@code null} value for {@code seedOfTheSystem}
+     */
+    public BlockGameOfLife(final byte[][] seedOfTheSystem) {
+        this(Pattern.fromSeed(seedOfTheSystem));
+    }
+
+    /**
+     * Initialize the current state of the system with the live cells of a pattern.
+     *
+     * @param pattern the pattern of the seed, its grid being the grid of the system
+     * @throws IllegalArgumentException if the grid does not fit in a single array
+     */
+    BlockGameOfLife(final Pattern pattern) {
+        vertical = pattern.getVertical();
+        horizontal = pattern.getHorizontal();
+        rule = pattern.getRule();
+        if (vertical < 1 || horizontal < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        blockRows = (vertical - 1) / 2 + 4;
+        stride = ((horizontal - 1) / 2 + 3 + 15) >>> 4;
+        if ((long) blockRows * stride > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException();
+        }
+        currentGeneration = new long[blockRows * stride];
+        tempGeneration = new long[blockRows * stride];
+        before = new long[((horizontal + 63) >>> 6) + 1];
+        after = new long[((horizontal + 63) >>> 6) + 1];
+
+        table = TABLES.computeIfAbsent(rule.getCode(), code -> table(rule));
+        for (int s = 0; s < 2; s++) {
+            rowMasks[s] = new long[blockRows];
+            for (int r = 0; r < blockRows; r++) {
+                int x = 2 * r - 4 + s;
+                rowMasks[s][r] = (x >= 0 && x < vertical ? UPPER_ROW : 0) | (x + 1 >= 0 && x + 1 < vertical ? LOWER_ROW : 0);
+            }
+            columnMasks[s] = new long[stride];
+            for (int c = 0; c < stride * 16; c++) {
+                int y = 2 * c - 4 + s;
+                long mask = (y >= 0 && y < horizontal ? WEST_COLUMN : 0) | (y + 1 >= 0 && y + 1 < horizontal ? EAST_COLUMN : 0);
+                columnMasks[s][c >>> 4] |= mask & (0xFL << ((c & 15) << 2));
+            }
+        }
+
+        for (int i = 0; i < pattern.size(); i++) {
+            int x = pattern.x(i);
+            int y = pattern.y(i);
+            currentGeneration[getIndex(x, y)] |= getBit(x, y);
+        }
+    }
+
+    /**
+     * Transition to the next generation by applying the {@link Rule} of the system.
+     */
+    public void nextGeneration() {
+        final long[] cur = currentGeneration;
+        final long[] next = tempGeneration;
+        final long[] rowMask = rowMasks[1 - shift];
+        final long[] columnMask = columnMasks[1 - shift];
+
+        for (int r = 1; r < blockRows - 1; r++) {
+            // The rows of blocks north and south of the squares
+            int n = shift == 0 ? r * stride : (r - 1) * stride;
+            int s = n + stride;
+            for (int k = 0; k < stride; k++) {
+                long nw, ne, sw, se;
+                if (shift == 0) {
+                    // Square j made of the blocks j and j + 1 of the rows
+                    long nEast = k + 1 < stride ? cur[n + k + 1] : 0;
+                    long sEast = k + 1 < stride ? cur[s + k + 1] : 0;
+                    nw = cur[n + k];
+                    sw = cur[s + k];
+                    ne = (nw >>> 4) | (nEast << 60);
+                    se = (sw >>> 4) | (sEast << 60);
+                } else {
+                    // Square j made of the blocks j - 1 and j of the rows
+                    long nWest = k > 0 ? cur[n + k - 1] : 0;
+                    long sWest = k > 0 ? cur[s + k - 1] : 0;
+                    ne = cur[n + k];
+                    se = cur[s + k];
+                    nw = (ne << 4) | (nWest >>> 60);
+                    sw = (se << 4) | (sWest >>> 60);
+                }
+                if ((nw | ne | sw | se) == 0) {
+                    next[r * stride + k] = 0;
+                    continue;
+                }
+                long word = 0;
+                for (int j = 0; j < 64; j += 4) {
+                    int square = (int) ((nw >>> j) & 0xF) | (int) ((ne >>> j) & 0xF) << 4
+                            | (int) ((sw >>> j) & 0xF) << 8 | (int) ((se >>> j) & 0xF) << 12;
+                    word |= (long) table[square] << j;
+                }
+                next[r * stride + k] = word & rowMask[r] & columnMask[k];
+            }
+        }
+
+        long[] words = currentGeneration;
+        currentGeneration = tempGeneration;
+        tempGeneration = words;
+        shift = 1 - shift;
+        if (!listeners.isEmpty()) {
+            reportChanges(tempGeneration, 1 - shift, currentGeneration, shift);
+        }
+        generation++;
+    }
+
+    @Override
+    public void step() {
+        nextGeneration();
+    }
+
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public long getPopulation() {
+        long population = 0;
+        for (long word : currentGeneration) {
+            population += Long.bitCount(word);
+        }
+        return population;
+    }
+
+    /**
+     * Check whether the given cell is alive in the current generation.
+     *
+     * @param x The x position of the cell
+     * @param y The y position of the cell
+     * @return {@code true} if the cell is alive; otherwise {@code false}
+     */
+    @Override
+    public boolean isAlive(final long x, final long y) {
+        if (x < 0 || x >= vertical || y < 0 || y >= horizontal) {
+            return false;
+        }
+        return (currentGeneration[getIndex((int) x, (int) y)] & getBit((int) x, (int) y)) != 0;
+    }
+
+    @Override
+    public void addCellListener(final CellListener listener) {
+        listeners.add(listener);
+        int wordsPerRow = (horizontal + 63) >>> 6;
+        for (int i = 0; i < vertical; i++) {
+            getRow(currentGeneration, shift, i, after);
+            for (int k = 0; k < wordsPerRow; k++) {
+                listener.wordChanged(i, (long) k << 6, 0, after[k]);
+            }
+        }
+    }
+
+    @Override
+    public void removeCellListener(final CellListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Report the cells which differ between two generations to the listeners, row by row.
+     *
+     * @param first The blocks of the first generation
+     * @param firstShift The shift of the blocks of the first generation
+     * @param second The blocks of the second generation
+     * @param secondShift The shift of the blocks of the second generation
+     */
+    private void reportChanges(final long[] first, final int firstShift, final long[] second, final int secondShift) {
+        int wordsPerRow = (horizontal + 63) >>> 6;
+        for (int i = 0; i < vertical; i++) {
+            getRow(first, firstShift, i, before);
+            getRow(second, secondShift, i, after);
+            for (int k = 0; k < wordsPerRow; k++) {
+                if (before[k] != after[k]) {
+                    listeners.wordChanged(i, (long) k << 6, before[k], after[k]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gather the cells of a row of the grid into words of 64 cells, bit {@code b} of word {@code k}
+     * being the cell in column {@code 64 * k + b}.
+     *
+     * @param blocks The blocks of a generation
+     * @param shift The shift of the blocks
+     * @param x The row of the grid
+     * @param row The words receiving the cells, one more than the words of a row
+     */
+    private void getRow(final long[] blocks, final int shift, final int x, final long[] row) {
+        Arrays.fill(row, 0);
+        int r = ((x - shift) >> 1) + 2;
+        int half = (x - shift) & 1;
+        for (int k = 0; k < stride; k++) {
+            long word = (blocks[r * stride + k] >>> (half << 1)) & UPPER_ROW;
+            if (word == 0) {
+                continue;
+            }
+            // Compact the two cells of every block into 32 consecutive cells
+            word = (word | (word >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+            word = (word | (word >>> 4)) & 0x00FF00FF00FF00FFL;
+            word = (word | (word >>> 8)) & 0x0000FFFF0000FFFFL;
+            word = (word | (word >>> 16)) & 0x00000000FFFFFFFFL;
+            // The first column of the word, at most four columns west of the grid whose cells are dead
+            int y = 32 * k - 4 + shift;
+            if (y < 0) {
+                word >>>= -y;
+                y = 0;
+            }
+            row[y >>> 6] |= word << y;
+            if ((y & 63) > 32) {
+                row[(y >>> 6) + 1] |= word >>> (64 - (y & 63));
+            }
+        }
+    }
+
+    /**
+     * Calculate the index of the word holding the given cell in the current generation.
+     *
+     * @param x The x position of the cell
+     * @param y The y position of the cell
+     * @return The index of the word of the cell in the word arrays
+     */
+    private int getIndex(final int x, final int y) {
+        int c = ((y - shift) >> 1) + 2;
+        return (((x - shift) >> 1) + 2) * stride + (c >>> 4);
+    }
+
+    /**
+     * @param x The x position of the cell
+     * @param y The y position of the cell
+     * @return The bit of the cell in the word of its index, in the current generation
+     */
+    private long getBit(final int x, final int y) {
+        int c = ((y - shift) >> 1) + 2;
+        return 1L << (((c & 15) << 2) + (((x - shift) & 1) << 1) + ((y - shift) & 1));
+    }
+
+    /**
+     * Compute the next 2x2 centre of every 4x4 square for a rule.
+     *
+     * @param rule The rule of the engine
+     * @return The table of the blocks of the centres, by square
+     */
+    private static byte[] table(final Rule rule) {
+        byte[] table = new byte[1 << 16];
+        for (int square = 0; square < table.length; square++) {
+            table[square] = (byte) centre(rule, square);
+        }
+        return table;
+    }
+
+    /**
+     * Compute the next generation of the 2x2 centre of a 4x4 square.
+     *
+     * @param rule The rule of the engine
+     * @param square The blocks of the square, in the layout of the index of the table
+     * @return The block of the centre
+     */
+    private static int centre(final Rule rule, final int square) {
+        int block = 0;
+        for (int i = 1; i <= 2; i++) {
+            for (int j = 1; j <= 2; j++) {
+                int neighbourhood = 0;
+                for (int di = -1; di <= 1; di++) {
+                    for (int dj = -1; dj <= 1; dj++) {
+                        int x = i + di;
+                        int y = j + dj;
+                        int bit = (((x >> 1) * 2 + (y >> 1)) << 2) + ((x & 1) << 1) + (y & 1);
+                        neighbourhood |= ((square >>> bit) & 1) << (3 * (di + 1) + dj + 1);
+                    }
+                }
+                block |= rule.next(neighbourhood) << (((i - 1) << 1) + j - 1);
+            }
+        }
+        return block;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < vertical; i++) {
+            for (int j = 0; j < horizontal; j++) {
+                if (isAlive(i, j)) {
+                    // Present the live cell by black square character
+                    builder.append("◾");
+                } else {
+                    // Present the dead cell by white square character
+                    builder.append("◽");
+                }
+            }
+            builder.append("\n");
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,39 @@
+package com.company.conway;
+
+/**
+ * Packing of a cell position into a single {@code long} key, the x position
+ * in the high 32 bits and the y position in the low 32 bits.
+ * <p>
+ *     Packed keys let the sparse engines keep their cells in primitive collections
+ *     instead of allocating a {@link Point} for every cell and every neighbour probe.
+ */
+final class CellKey {
+
+    private CellKey() {
+    }
+
+    /**
+     * @param x The x position of the cell
+     * @param y The y position of the cell
+     * @return The key of the cell
+     */
+    static long pack(final int x, final int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param key the key of a cell
+     * @return The x position of the cell
+     */
+    static int x(final long key) {
+        return (int) (key >> 32);
+    }
+
+    /**
+     * @param key the key of a cell
+     * @return The y position of the cell
+     */
+    static int y(final long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,39 @@
+package com.company.conway;
+
+/**
+ * Receiver of the cells changed by an engine, so views of the system can be kept
+ * up to date incrementally instead of scanning the whole grid at each generation.
+ * <p>
+ *     The listener is called on the thread stepping the engine, before
+ *     {@link LifeEngine#step()} returns. Cells are addressed as in {@link LifeEngine}.
+ */
+@FunctionalInterface
+interface CellListener {
+
+    /**
+     * Called for every cell which was born or died in the generation being computed.
+     *
+     * @param x The x position of the cell
+     * @param y The y position of the cell
+     * @param alive {@code true} if the cell was born; {@code false} if it died
+     */
+    void cellChanged(long x, long y, boolean alive);
+
+    /**
+     * Called by the engines storing 64 cells of a row per {@code long} word, bit {@code b}
+     * being the cell in column {@code y + b}, for every cell which differs between both words.
+     *
+     * @param x The x position of the cells
+     * @param y The y position of the cell of bit 0
+     * @param before The cells in the last generation
+     * @param after The cells in the generation being computed
+     */
+    default void wordChanged(final long x, final long y, final long before, final long after) {
+        long diff = before ^ after;
+        while (diff != 0) {
+            int bit = Long.numberOfTrailingZeros(diff);
+            cellChanged(x, y + bit, (after & (1L << bit)) != 0);
+            diff &= diff - 1;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.company.conway;
+
+import java.util.Arrays;
+
+/**
+ * The listeners added to an engine, called in turn for every change as a single listener.
+ * <p>
+ *     The listeners are kept in an array replaced on every addition or removal, so reporting a
+ *     change only walks an array. They are added and removed from the thread stepping the engine.
+ */
+final class CellListeners implements CellListener {
+    private static final CellListener[] NONE = new CellListener[0];
+
+    private CellListener[] listeners = NONE;
+
+    /**
+     * @param listener the listener to call after the ones already added
+     */
+    void add(final CellListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException();
+        }
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    /**
+     * @param listener the listener not to call any more, nothing happens if it was not added
+     */
+    void remove(final CellListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                CellListener[] remaining = new CellListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, remaining, 0, i);
+                System.arraycopy(listeners, i + 1, remaining, i, remaining.length - i);
+                listeners = remaining.length == 0 ? NONE : remaining;
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if no listener was added, so the changes need not be computed
+     */
+    boolean isEmpty() {
+        return listeners.length == 0;
+    }
+
+    @Override
+    public void cellChanged(final long x, final long y, final boolean alive) {
+        for (CellListener listener : listeners) {
+            listener.cellChanged(x, y, alive);
+        }
+    }
+
+    @Override
+    public void wordChanged(final long x, final long y, final long before, final long after) {
+        for (CellListener listener : listeners) {
+            listener.wordChanged(x, y, before, after);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.company.conway;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary checkpoints of the engines, to resume a long evolution after a restart.
+ * <p>
+ *     A checkpoint is a {@value #HEADER_SIZE} bytes little endian header followed by
+ *     {@code count} little endian {@code long} words:
+ * <pre>
+ *     offset  0  int   magic "GOLC"
+ *     offset  4  int   version of the format
+ *     offset  8  short kind of engine
+ *     offset 10  short topology of the grid, always {@code 0} (bounded) but for {@link GameOfLife}
+ *     offset 12  int   rule, as given by {@link Rule#getCode()}
+ *     offset 16  long  generation
+ *     offset 24  long  vertical
+ *     offset 32  long  horizontal
+ *     offset 40  long  top, the x position of the grid on the plane
+ *     offset 48  long  left, the y position of the grid on the plane
+ *     offset 56  long  count, the number of words which follow
+ * </pre>
+ *     The words are the raw bit words of {@link GameOfLife} and {@link BitwiseGameOfLife},
+ *     the chunks of {@link FreeGameOfLife} (the {@link CellKey} of a chunk then its rows),
+ *     or the {@link CellKey} of every live cell of {@link ConwayGameOfLife} and {@link SparseGameOfLife}.
+ *     The checkpoints of the previous versions are still restored: in version 2 the kind is an {@code int}
+ *     at offset 8 and the grid is bounded, and version 1 has no rule either, evolving with the Conway's rule.
+ * <p>
+ *     A checkpoint is written to a temporary file which replaces the previous checkpoint only once it is
+ *     completely on the storage device, so a crash while saving never loses the last checkpoint.
+ *     It is restored by mapping the file and copying the words in bulk into the arrays of the engine.
+ */
+final class Checkpoint {
+    // "GOLC" in ASCII
+    private static final int MAGIC = 0x474F4C43;
+
+    private static final int VERSION = 3;
+
+    // Checkpoints of the first version have no rule and evolve with the Conway's rule
+    private static final int CONWAY_VERSION = 1;
+
+    // Checkpoints of the second version have a rule but no topology, their kind being an int
+    private static final int RULE_VERSION = 2;
+
+    static final int HEADER_SIZE = 64;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int KIND_OFFSET = 8;
+    private static final int TOPOLOGY_OFFSET = 10;
+    private static final int RULE_OFFSET = 12;
+    private static final int GENERATION_OFFSET = 16;
+    private static final int VERTICAL_OFFSET = 24;
+    private static final int HORIZONTAL_OFFSET = 32;
+    private static final int TOP_OFFSET = 40;
+    private static final int LEFT_OFFSET = 48;
+    private static final int COUNT_OFFSET = 56;
+
+    // The largest region of the file mapped at once, a multiple of the word size
+    private static final long MAXIMUM_MAPPING_SIZE = 1L << 30;
+
+    // The size of the buffer the words are written through
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * The engines which can be checkpointed, with their code in the header.
+     */
+    enum Kind {
+        BITSET(1),
+        BITWISE(2),
+        FREE(3),
+        CONWAY(4),
+        SPARSE(5);
+
+        final private int code;
+
+        Kind(final int code) {
+            this.code = code;
+        }
+
+        static Kind of(final int code) {
+            for (Kind kind : values()) {
+                if (kind.code == code) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("Unknown kind of engine " + code);
+        }
+    }
+
+    private Checkpoint() {
+    }
+
+    /**
+     * Save the current generation of an engine.
+     *
+     * @param engine The engine to save
+     * @param path The checkpoint file, replaced if it exists
+     * @throws IOException if the checkpoint can not be written
+     * @throws UnsupportedOperationException if the engine can not be checkpointed
+     */
+    static void save(final LifeEngine engine, final Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        long[] words;
+        if (engine instanceof GameOfLife) {
+            GameOfLife life = (GameOfLife) engine;
+            words = life.getWords();
+            writeHeader(header, Kind.BITSET, engine.getGeneration(), life.getVertical(), life.getHorizontal(), 0, 0);
+            header.putShort(TOPOLOGY_OFFSET, (short) life.getTopology().getCode());
+        } else if (engine instanceof BitwiseGameOfLife) {
+            BitwiseGameOfLife life = (BitwiseGameOfLife) engine;
+            words = life.getWords();
+            writeHeader(header, Kind.BITWISE, engine.getGeneration(), life.getVertical(), life.getHorizontal(), 0, 0);
+        } else if (engine instanceof FreeGameOfLife) {
+            FreeGameOfLife life = (FreeGameOfLife) engine;
+            words = life.getChunkWords();
+            writeHeader(header, Kind.FREE, engine.getGeneration(), life.getVertical(), life.getHorizontal(),
+                    life.getTop(), life.getLeft());
+        } else if (engine instanceof ConwayGameOfLife) {
+            ConwayGameOfLife life = (ConwayGameOfLife) engine;
+            words = life.getCells();
+            writeHeader(header, Kind.CONWAY, engine.getGeneration(), life.getVertical(), life.getHorizontal(), 0, 0);
+        } else if (engine instanceof SparseGameOfLife) {
+            SparseGameOfLife life = (SparseGameOfLife) engine;
+            words = life.getCells();
+            writeHeader(header, Kind.SPARSE, engine.getGeneration(), life.getVertical(), life.getHorizontal(), 0, 0);
+        } else {
+            throw new UnsupportedOperationException();
+        }
+        header.putInt(RULE_OFFSET, engine.getRule().getCode());
+        header.putLong(COUNT_OFFSET, words.length);
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            LongBuffer longs = buffer.asLongBuffer();
+            for (int i = 0; i < words.length; i += longs.capacity()) {
+                int count = Math.min(longs.capacity(), words.length - i);
+                longs.clear();
+                longs.put(words, i, count);
+                buffer.clear().limit(count * Long.BYTES);
+                writeFully(channel, buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restore an engine from a checkpoint, in the generation it was saved.
+     *
+     * @param path The checkpoint file
+     * @return The engine, of the kind which was saved
+     * @throws IOException if the checkpoint can not be read
+     * @throws IllegalArgumentException if the file is not a valid checkpoint
+     */
+    static LifeEngine restore(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IllegalArgumentException("Not a checkpoint: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(MAGIC_OFFSET) != MAGIC) {
+                throw new IllegalArgumentException("Not a checkpoint: " + path);
+            }
+            int version = header.getInt(VERSION_OFFSET);
+            if (version != VERSION && version != RULE_VERSION && version != CONWAY_VERSION) {
+                throw new IllegalArgumentException("Unsupported checkpoint version " + version);
+            }
+            Kind kind;
+            Topology topology;
+            if (version == VERSION) {
+                kind = Kind.of(header.getShort(KIND_OFFSET));
+                topology = Topology.of(header.getShort(TOPOLOGY_OFFSET));
+            } else {
+                // The grids of the older versions are all bounded
+                kind = Kind.of(header.getInt(KIND_OFFSET));
+                topology = Topology.BOUNDED;
+            }
+            Rule rule = version == CONWAY_VERSION ? Rule.CONWAY : Rule.of(header.getInt(RULE_OFFSET));
+            long generation = header.getLong(GENERATION_OFFSET);
+            int vertical = toInt(header.getLong(VERTICAL_OFFSET));
+            int horizontal = toInt(header.getLong(HORIZONTAL_OFFSET));
+            int top = toInt(header.getLong(TOP_OFFSET));
+            int left = toInt(header.getLong(LEFT_OFFSET));
+            long count = header.getLong(COUNT_OFFSET);
+            if (count < 0 || count > Integer.MAX_VALUE - 8 || channel.size() != HEADER_SIZE + count * Long.BYTES) {
+                throw new IllegalArgumentException("Truncated checkpoint: " + path);
+            }
+
+            long[] words = readWords(channel, (int) count);
+            switch (kind) {
+                case BITSET:
+                    return new GameOfLife(vertical, horizontal, words, generation, topology, rule);
+                case BITWISE:
+                    return new BitwiseGameOfLife(vertical, horizontal, words, generation, rule);
+                case FREE:
+                    return new FreeGameOfLife(top, left, vertical, horizontal, words, generation, rule);
+                case CONWAY:
+                    return new ConwayGameOfLife(vertical, horizontal, words, generation, rule);
+                default:
+                    return new SparseGameOfLife(vertical, horizontal, words, generation, rule);
+            }
+        }
+    }
+
+    private static void writeHeader(final ByteBuffer header, final Kind kind, final long generation,
+                                    final long vertical, final long horizontal, final long top, final long left) {
+        header.putInt(MAGIC_OFFSET, MAGIC);
+        header.putInt(VERSION_OFFSET, VERSION);
+        header.putShort(KIND_OFFSET, (short) kind.code);
+        header.putLong(GENERATION_OFFSET, generation);
+        header.putLong(VERTICAL_OFFSET, vertical);
+        header.putLong(HORIZONTAL_OFFSET, horizontal);
+        header.putLong(TOP_OFFSET, top);
+        header.putLong(LEFT_OFFSET, left);
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Copy the words following the header into an array, mapping the file one region at a time.
+     *
+     * @param channel The checkpoint file
+     * @param count The number of words
+     * @return The words
+     */
+    private static long[] readWords(final FileChannel channel, final int count) throws IOException {
+        long[] words = new long[count];
+        long position = HEADER_SIZE;
+        int read = 0;
+        while (read < count) {
+            int length = (int) Math.min(count - read, MAXIMUM_MAPPING_SIZE / Long.BYTES);
+            MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, position, (long) length * Long.BYTES);
+            mapping.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(words, read, length);
+            position += (long) length * Long.BYTES;
+            read += length;
+        }
+        return words;
+    }
+
+    private static int toInt(final long value) {
+        if (value != (int) value) {
+            throw new IllegalArgumentException("Value out of range in checkpoint: " + value);
+        }
+        return (int) value;
+    }
+}
@@ -0,0 +1,223 @@
+package com.company.conway;
+
+import com.company.util.LongIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Spatial index of the live cells of an unbounded plane, bucketed by chunks of 64 x 64 cells.
+ * <p>
+ *     Every chunk holding a live cell is a bitmap of 64 words, one per row, kept in a shared array and
+ *     found by the {@link CellKey} of its chunk coordinates. The index is fed with the changes of an
+ *     engine as a {@link CellListener}, so it follows the cells wherever they move, and a chunk is
+ *     dropped as soon as its last cell dies. A window of the plane is then read by visiting only the
+ *     chunks it overlaps, and within them only the rows of the window and the bits of its live cells,
+ *     whatever the extent of the plane.
+ */
+class ChunkIndex implements CellListener {
+    private static final int CHUNK_BITS = 6;
+
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    // Slot + 1 of every chunk, by the key of its chunk coordinates
+    final private LongIntHashMap slots = new LongIntHashMap();
+
+    // The rows of the chunk of slot s, from words[s * CHUNK_SIZE]
+    private long[] words = new long[16 * CHUNK_SIZE];
+
+    // The number of live cells of the chunk of every slot
+    private int[] populations = new int[16];
+
+    // Slots of the dropped chunks, reused before new ones
+    private int[] freeSlots = new int[16];
+
+    private int freeCount;
+
+    private int slotCount;
+
+    @Override
+    public void cellChanged(final long x, final long y, final boolean alive) {
+        if (x != (int) x || y != (int) y) {
+            return;
+        }
+        long key = CellKey.pack((int) x >> CHUNK_BITS, (int) y >> CHUNK_BITS);
+        int index = (int) x & (CHUNK_SIZE - 1);
+        long bit = 1L << y;
+        int slot = slots.get(key) - 1;
+        if (alive) {
+            if (slot < 0) {
+                slot = allocate(key);
+            }
+            if ((words[slot * CHUNK_SIZE + index] & bit) == 0) {
+                words[slot * CHUNK_SIZE + index] |= bit;
+                populations[slot]++;
+            }
+        } else if (slot >= 0 && (words[slot * CHUNK_SIZE + index] & bit) != 0) {
+            words[slot * CHUNK_SIZE + index] &= ~bit;
+            if (--populations[slot] == 0) {
+                release(key, slot);
+            }
+        }
+    }
+
+    @Override
+    public void wordChanged(final long x, final long y, final long before, final long after) {
+        if ((y & (CHUNK_SIZE - 1)) != 0 || x != (int) x || y != (int) y) {
+            // Across two chunks, cell by cell
+            CellListener.super.wordChanged(x, y, before, after);
+            return;
+        }
+        long key = CellKey.pack((int) x >> CHUNK_BITS, (int) y >> CHUNK_BITS);
+        int slot = slots.get(key) - 1;
+        if (slot < 0) {
+            if (after == 0) {
+                return;
+            }
+            slot = allocate(key);
+        }
+        int index = slot * CHUNK_SIZE + ((int) x & (CHUNK_SIZE - 1));
+        populations[slot] += Long.bitCount(after) - Long.bitCount(words[index]);
+        words[index] = after;
+        if (populations[slot] == 0) {
+            release(key, slot);
+        }
+    }
+
+    /**
+     * @return The number of live cells of the index
+     */
+    long getPopulation() {
+        long population = 0;
+        for (int slot = slots.nextSlot(0); slot >= 0; slot = slots.nextSlot(slot + 1)) {
+            population += populations[slots.valueAt(slot) - 1];
+        }
+        return population;
+    }
+
+    /**
+     * Find the live cells of a window of the plane, in time proportional to the chunks overlapping the
+     * window and to its live cells, rather than to its area.
+     *
+     * @param top The x position of the north west cell of the window
+     * @param left The y position of the north west cell of the window
+     * @param vertical The number of rows of the window
+     * @param horizontal The number of columns of the window
+     * @return The {@link CellKey} of the live cells of the window, row after row from the west
+     * @throws IllegalArgumentException if the size of the window is negative
+     */
+    long[] cellsIn(final long top, final long left, final int vertical, final int horizontal) {
+        if (vertical < 0 || horizontal < 0) {
+            throw new IllegalArgumentException();
+        }
+        // Clip the window to the plane of int positions
+        long bottom = Math.min(top + vertical, (long) Integer.MAX_VALUE + 1);
+        long right = Math.min(left + horizontal, (long) Integer.MAX_VALUE + 1);
+        long first = Math.max(top, Integer.MIN_VALUE);
+        long west = Math.max(left, Integer.MIN_VALUE);
+        if (first >= bottom || west >= right || slots.isEmpty()) {
+            return new long[0];
+        }
+        int firstChunkRow = (int) (first >> CHUNK_BITS);
+        int lastChunkRow = (int) ((bottom - 1) >> CHUNK_BITS);
+        int firstChunkColumn = (int) (west >> CHUNK_BITS);
+        int lastChunkColumn = (int) ((right - 1) >> CHUNK_BITS);
+
+        // The overlapped chunks in row-major order, probed one by one unless the window covers more chunks than exist
+        long area = ((long) lastChunkRow - firstChunkRow + 1) * ((long) lastChunkColumn - firstChunkColumn + 1);
+        long[] chunks;
+        int count = 0;
+        if (area <= slots.size()) {
+            chunks = new long[(int) area];
+            for (int i = firstChunkRow; i <= lastChunkRow; i++) {
+                for (int j = firstChunkColumn; j <= lastChunkColumn; j++) {
+                    if (slots.containsKey(CellKey.pack(i, j))) {
+                        chunks[count++] = CellKey.pack(i, j);
+                    }
+                }
+            }
+        } else {
+            chunks = new long[slots.size()];
+            for (int slot = slots.nextSlot(0); slot >= 0; slot = slots.nextSlot(slot + 1)) {
+                long key = slots.keyAt(slot);
+                int i = CellKey.x(key);
+                int j = CellKey.y(key);
+                if (i >= firstChunkRow && i <= lastChunkRow && j >= firstChunkColumn && j <= lastChunkColumn) {
+                    // Flip the sign bit of the column so the keys sort as signed rows then signed columns
+                    chunks[count++] = key ^ 0x80000000L;
+                }
+            }
+            Arrays.sort(chunks, 0, count);
+            for (int k = 0; k < count; k++) {
+                chunks[k] ^= 0x80000000L;
+            }
+        }
+
+        long[] cells = new long[64];
+        int size = 0;
+        int[] row = new int[count];
+        for (int start = 0; start < count; ) {
+            // The chunks of a chunk row, from the west
+            int chunkRow = CellKey.x(chunks[start]);
+            int end = start;
+            while (end < count && CellKey.x(chunks[end]) == chunkRow) {
+                row[end - start] = slots.get(chunks[end]) - 1;
+                end++;
+            }
+            long rowBase = (long) chunkRow << CHUNK_BITS;
+            int from = (int) Math.max(first - rowBase, 0);
+            int to = (int) Math.min(bottom - rowBase, CHUNK_SIZE);
+            for (int index = from; index < to; index++) {
+                for (int k = start; k < end; k++) {
+                    long columnBase = (long) CellKey.y(chunks[k]) << CHUNK_BITS;
+                    long word = words[row[k - start] * CHUNK_SIZE + index] & mask(west - columnBase, right - columnBase);
+                    if (size + Long.bitCount(word) > cells.length) {
+                        cells = Arrays.copyOf(cells, Math.max(cells.length * 2, size + CHUNK_SIZE));
+                    }
+                    while (word != 0) {
+                        cells[size++] = CellKey.pack((int) (rowBase + index),
+                                (int) (columnBase + Long.numberOfTrailingZeros(word)));
+                        word &= word - 1;
+                    }
+                }
+            }
+            start = end;
+        }
+        return Arrays.copyOf(cells, size);
+    }
+
+    /**
+     * @return The bits of a chunk row from column {@code from} included to column {@code to} excluded,
+     * both relative to the west of the chunk
+     */
+    private static long mask(final long from, final long to) {
+        long low = from <= 0 ? -1L : -1L << from;
+        long high = to >= CHUNK_SIZE ? -1L : (1L << to) - 1;
+        return low & high;
+    }
+
+    private int allocate(final long key) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = slotCount++;
+            if (slot == populations.length) {
+                populations = Arrays.copyOf(populations, slot * 2);
+                words = Arrays.copyOf(words, slot * 2 * CHUNK_SIZE);
+            }
+        }
+        slots.put(key, slot + 1);
+        return slot;
+    }
+
+    /**
+     * Drop an empty chunk, whose rows are all zero already.
+     */
+    private void release(final long key, final int slot) {
+        slots.remove(key);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+}
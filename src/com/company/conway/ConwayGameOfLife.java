@@ -0,0 +1,330 @@
+package com.company.conway;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *
+ */
+class ConwayGameOfLife implements LifeEngine {
+    // Storing state of the current generation system
+    private Map<Point, Byte> currentGeneration;
+
+    // The constant 1 value to present the live cell
+    private static final byte LIVE_CELL_VAL = 1;
+
+    // Eight neighbours
+    private static final byte[][] NEIGHBOUR_CELL = {
+            {-1, -1}, // NW
+            {-1,  0}, // N
+            {-1,  1}, // NE
+            { 0, -1}, // W
+            { 0,  1}, // E
+            { 1, -1}, // SW
+            { 1,  0}, // S
+            { 1,  1}  // SE
+    };
+
+    private int horizontal;
+
+    private int vertical;
+
+    final private Rule rule;
+
+    private long generation;
+
+    // Receivers of the changed cells
+    final private CellListeners listeners = new CellListeners();
+
+    // The live cells by chunk of the plane for the views of a window, null until a window is first viewed
+    private ChunkIndex index;
+
+    /**
+     * Initialize the current state of the system with a given seed.
+     *
+     * @param seedOfTheSystem seed of the system
+     * @throws UnsupportedOperationException throw {@link UnsupportedOperationException}
+     * if the input {@code null} value for {@code seedOfTheSystem}
+     */
+    public ConwayGameOfLife(final byte[][] seedOfTheSystem) {
+        this(Pattern.fromSeed(seedOfTheSystem));
+    }
+
+    /**
+     * Initialize the current state of the system with the live cells of a pattern.
+     *
+     * @param pattern the pattern of the seed
+     */
+    ConwayGameOfLife(final Pattern pattern) {
+        rule = pattern.getRule();
+        initSystemState(pattern);
+    }
+
+    /**
+     * Restore a system from the cells of a checkpoint.
+     *
+     * @param vertical The number of rows of the seed
+     * @param horizontal The number of columns of the seed
+     * @param cells The {@link CellKey} of the live cells of the current generation
+     * @param generation The number of generations evolved since the seed
+     * @param rule The rule the system evolves with
+     */
+    ConwayGameOfLife(final int vertical, final int horizontal, final long[] cells, final long generation,
+                     final Rule rule) {
+        this.vertical = vertical;
+        this.horizontal = horizontal;
+        this.generation = generation;
+        this.rule = rule;
+
+        currentGeneration = new HashMap<Point, Byte>();
+        for (long key : cells) {
+            currentGeneration.put(new Point(CellKey.x(key), CellKey.y(key)), LIVE_CELL_VAL);
+        }
+    }
+
+    /**
+     * Transition to the next generation by applying the {@link Rule} of the system.
+     * The deaths and the births are reported to the index and the listeners as they are found.
+     */
+    public void evolve() {
+        Map<Point, Byte> tempGeneration = new HashMap<Point, Byte>();
+        boolean reporting = index != null || !listeners.isEmpty();
+        // At each step time, looping all live cells in the current generation to evolve
+        for (Point p : currentGeneration.keySet()) {
+            byte liveCellNeighbours = countLiveNeighbourCells(p);
+
+            // A live cell lives on to the next generation if the rule lets it survive, otherwise it dies
+            if (rule.next(1, liveCellNeighbours) != 0)
+                tempGeneration.put(p, LIVE_CELL_VAL);
+            else if (reporting)
+                reportChange(p, false);
+
+            // A dead cell next to a live cell becomes a live cell if the rule gives it birth
+            for (byte[] n : NEIGHBOUR_CELL) {
+                Point pt = p.move(n);
+                if (currentGeneration.get(pt) == null) {
+                    if (rule.next(0, countLiveNeighbourCells(pt)) != 0) {
+                        // Reached from each of its live neighbours, but born once
+                        if (tempGeneration.put(pt, LIVE_CELL_VAL) == null && reporting) {
+                            reportChange(pt, true);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Swap the next generation to the current generation for the next step time
+        currentGeneration = tempGeneration;
+        generation++;
+    }
+
+    @Override
+    public void step() {
+        evolve();
+    }
+
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return The {@link CellKey} of the live cells of the current generation
+     */
+    long[] getCells() {
+        long[] cells = new long[currentGeneration.size()];
+        int i = 0;
+        for (Point p : currentGeneration.keySet()) {
+            cells[i++] = CellKey.pack(p.getX(), p.getY());
+        }
+        return cells;
+    }
+
+    int getVertical() {
+        return vertical;
+    }
+
+    int getHorizontal() {
+        return horizontal;
+    }
+
+    @Override
+    public boolean isBounded() {
+        return false;
+    }
+
+    @Override
+    public long getPopulation() {
+        return currentGeneration.size();
+    }
+
+    @Override
+    public boolean isAlive(final long x, final long y) {
+        if (x != (int) x || y != (int) y) {
+            return false;
+        }
+        return currentGeneration.get(new Point((int) x, (int) y)) != null;
+    }
+
+    @Override
+    public void addCellListener(final CellListener listener) {
+        listeners.add(listener);
+        for (Point p : currentGeneration.keySet()) {
+            listener.cellChanged(p.getX(), p.getY(), true);
+        }
+    }
+
+    @Override
+    public void removeCellListener(final CellListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Report a cell born or dying in the next generation to the index, if built, and the listeners.
+     *
+     * @param p The position of the cell
+     * @param alive {@code true} for a birth, {@code false} for a death
+     */
+    private void reportChange(final Point p, final boolean alive) {
+        if (index != null) {
+            index.cellChanged(p.getX(), p.getY(), alive);
+        }
+        listeners.cellChanged(p.getX(), p.getY(), alive);
+    }
+
+    /**
+     * Count the live cell neighbours to given cell.
+     *
+     * @param point The position of the cell
+     * @return The total number of live cell neighbours to the given position cell
+     */
+    private byte countLiveNeighbourCells(final Point point) {
+
+        byte count = 0;
+
+        for (byte[] n : NEIGHBOUR_CELL) {
+            if (currentGeneration.get(point.move(n)) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Set the current state of the system from given pattern.
+     *
+     * @param pattern pattern of the seed of the system
+     */
+    private void initSystemState(final Pattern pattern) {
+        vertical = pattern.getVertical();
+        horizontal = pattern.getHorizontal();
+
+        currentGeneration = new HashMap<Point, Byte>();
+        for (int i = 0; i < pattern.size(); i++) {
+            currentGeneration.put(new Point(pattern.x(i), pattern.y(i)), LIVE_CELL_VAL);
+        }
+    }
+
+    /**
+     * Find the live cells of a window of the plane, in time proportional to the live cells of the window
+     * rather than to its area or to the population.
+     *
+     * @param top The x position of the north west cell of the window
+     * @param left The y position of the north west cell of the window
+     * @param vertical The number of rows of the window
+     * @param horizontal The number of columns of the window
+     * @return The {@link CellKey} of the live cells of the window, row after row from the west
+     * @throws IllegalArgumentException if the size of the window is negative
+     */
+    long[] cellsIn(final long top, final long left, final int vertical, final int horizontal) {
+        if (index == null) {
+            // Built on the first view only, so the engine never run with views does not maintain it
+            index = new ChunkIndex();
+            for (Point p : currentGeneration.keySet()) {
+                index.cellChanged(p.getX(), p.getY(), true);
+            }
+        }
+        return index.cellsIn(top, left, vertical, horizontal);
+    }
+
+    @Override
+    public String toString() {
+        return toString(0, 0, vertical, horizontal);
+    }
+
+    /**
+     * Present a window of the plane, wherever the cells moved from the seed.
+     *
+     * @param top The x position of the north west cell of the window
+     * @param left The y position of the north west cell of the window
+     * @param vertical The number of rows of the window
+     * @param horizontal The number of columns of the window
+     * @return The rows of the window, a black square for a live cell and a white square for a dead one
+     * @throws IllegalArgumentException if the size of the window is negative
+     */
+    String toString(final long top, final long left, final int vertical, final int horizontal) {
+        // Present the dead cells by white square character, then the live ones by black square character
+        int width = horizontal + 1;
+        char[] view = new char[vertical * width];
+        Arrays.fill(view, '◽');
+        for (int i = 1; i <= vertical; i++) {
+            view[i * width - 1] = '\n';
+        }
+        for (long key : cellsIn(top, left, vertical, horizontal)) {
+            view[(int) (CellKey.x(key) - top) * width + (int) (CellKey.y(key) - left)] = '◾';
+        }
+        return new String(view);
+    }
+}
+
+/**
+ *
+ */
+class Point {
+    private int x;
+
+    private int y;
+
+    public Point(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public Point move(final byte[] step) {
+        return new Point(x + step[0], y + step[1]);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Point point = (Point) o;
+
+        if (x != point.x) return false;
+        if (y != point.y) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = x;
+        result = 31 * result + y;
+        return result;
+    }
+}
@@ -0,0 +1,234 @@
+package com.company.conway;
+
+/**
+ * Engine wrapper detecting when the system becomes periodic, and skipping the whole periods.
+ * <p>
+ *     The detector listens to the births and deaths of the wrapped engine and keeps an incremental
+ *     hash of each generation: the sum over the live cells of {@link CycleHistory#term(long, long)},
+ *     along with the population and the sums of the positions of the live cells, so a generation is
+ *     recognised as an earlier one moved by a whole displacement in constant time.
+ * <p>
+ *     The last generations are kept in a {@link CycleHistory}, which finds and confirms the cycle
+ *     (a still life, an oscillator, or a spaceship when the displacement is not zero). From then on
+ *     {@link #advance(long)} only evolves the remainder of the generations modulo the period, the
+ *     skipped periods moving the view of the pattern by their displacement. Spaceships are only
+ *     detected on unbounded engines, since they eventually reach the border of a bounded grid.
+ */
+class CycleDetector implements LifeEngine, CellListener {
+    // Default number of generations kept in the history, the longest period detected
+    static final int DEFAULT_HISTORY = 1024;
+
+    final private LifeEngine engine;
+
+    // Hash, population and sums of the positions of the current generation
+    private long hash;
+
+    private long population;
+
+    private long sumX;
+
+    private long sumY;
+
+    // The same values for the last generations
+    final private CycleHistory history;
+
+    // The confirmed cycle, null if none
+    private Cycle cycle;
+
+    // Generations skipped by the fast forward, and the resulting displacement of the view
+    private long skipped;
+
+    private long offsetX;
+
+    private long offsetY;
+
+    // Downstream receivers of the changed cells, moved by the offset of the view
+    final private CellListeners listeners = new CellListeners();
+
+    // The generation of the engine when it was wrapped, the first one of the history
+    final private long firstGeneration;
+
+    /**
+     * Wrap an engine with a history of {@value #DEFAULT_HISTORY} generations.
+     *
+     * @param engine the engine to wrap, which must not be stepped directly anymore
+     * @throws UnsupportedOperationException if the engine can not report its changes
+     */
+    CycleDetector(final LifeEngine engine) {
+        this(engine, DEFAULT_HISTORY);
+    }
+
+    /**
+     * Wrap an engine.
+     *
+     * @param engine the engine to wrap, which must not be stepped directly anymore
+     * @param history the number of generations kept, the longest period which can be detected
+     * @throws IllegalArgumentException if {@code history} is less than 2
+     * @throws UnsupportedOperationException if the engine can not report its changes
+     */
+    CycleDetector(final LifeEngine engine, final int history) {
+        this.history = new CycleHistory(history, !engine.isBounded());
+        this.engine = engine;
+        firstGeneration = engine.getGeneration();
+        engine.addCellListener(this);
+        record();
+    }
+
+    @Override
+    public void step() {
+        engine.step();
+        if (cycle == null) {
+            record();
+        }
+    }
+
+    /**
+     * Advance the system by the given number of generations, skipping the whole periods
+     * once a cycle is confirmed.
+     *
+     * @param generations the number of generations to advance
+     * @throws IllegalArgumentException if {@code generations} is negative
+     */
+    @Override
+    public void advance(long generations) {
+        if (generations < 0) {
+            throw new IllegalArgumentException();
+        }
+        while (generations > 0 && cycle == null) {
+            step();
+            generations--;
+        }
+        if (generations > 0) {
+            long periods = generations / cycle.period;
+            skipped += periods * cycle.period;
+            moveView(periods * cycle.displacementX, periods * cycle.displacementY);
+            engine.advance(generations % cycle.period);
+        }
+    }
+
+    /**
+     * @return The confirmed cycle, or {@code null} if the system is not known to be periodic yet
+     */
+    Cycle getCycle() {
+        return cycle;
+    }
+
+    @Override
+    public long getGeneration() {
+        return engine.getGeneration() + skipped;
+    }
+
+    @Override
+    public long getPopulation() {
+        return engine.getPopulation();
+    }
+
+    @Override
+    public boolean isAlive(final long x, final long y) {
+        return engine.isAlive(x - offsetX, y - offsetY);
+    }
+
+    @Override
+    public Rule getRule() {
+        return engine.getRule();
+    }
+
+    @Override
+    public boolean isBounded() {
+        return engine.isBounded();
+    }
+
+    @Override
+    public void addCellListener(final CellListener listener) {
+        listeners.add(listener);
+        replay(listener, true);
+    }
+
+    @Override
+    public void removeCellListener(final CellListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Move the view of the pattern, the downstream listener seeing the cells die at their
+     * old position and be born at the new one.
+     */
+    private void moveView(final long dx, final long dy) {
+        if (!listeners.isEmpty() && (dx != 0 || dy != 0)) {
+            replay(listeners, false);
+        }
+        offsetX += dx;
+        offsetY += dy;
+        if (!listeners.isEmpty() && (dx != 0 || dy != 0)) {
+            replay(listeners, true);
+        }
+    }
+
+    /**
+     * Report every live cell to a downstream listener with the given state.
+     */
+    private void replay(final CellListener listener, final boolean alive) {
+        // Only the engine knows its live cells, so it reports them to a listener added for the time of the replay
+        CellListener view = (x, y, state) -> listener.cellChanged(x + offsetX, y + offsetY, alive);
+        engine.addCellListener(view);
+        engine.removeCellListener(view);
+    }
+
+    @Override
+    public void cellChanged(final long x, final long y, final boolean alive) {
+        if (cycle == null) {
+            long term = CycleHistory.term(x, y);
+            if (alive) {
+                hash += term;
+                population++;
+                sumX += x;
+                sumY += y;
+            } else {
+                hash -= term;
+                population--;
+                sumX -= x;
+                sumY -= y;
+            }
+        }
+        if (!listeners.isEmpty()) {
+            listeners.cellChanged(x + offsetX, y + offsetY, alive);
+        }
+    }
+
+    /**
+     * Record the current generation, and keep the cycle ending with it once confirmed.
+     */
+    private void record() {
+        if (history.record(hash, population, sumX, sumY)) {
+            cycle = new Cycle(firstGeneration + history.getStart(), history.getPeriod(),
+                    history.getDisplacementX(), history.getDisplacementY());
+        }
+    }
+
+    /**
+     * A periodic behaviour of the system: from {@code start}, every {@code period} generations
+     * the pattern is the same, moved by {@code (displacementX, displacementY)}.
+     */
+    static final class Cycle {
+        final long start;
+
+        final long period;
+
+        final long displacementX;
+
+        final long displacementY;
+
+        Cycle(final long start, final long period, final long displacementX, final long displacementY) {
+            this.start = start;
+            this.period = period;
+            this.displacementX = displacementX;
+            this.displacementY = displacementY;
+        }
+
+        @Override
+        public String toString() {
+            return "period " + period + " from generation " + start
+                    + ", displacement (" + displacementX + ", " + displacementY + ")";
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.company.conway;
+
+/**
+ * Bounded history of the last generations of a system, finding the cycle they end with.
+ * <p>
+ *     Each generation is recorded as a signature: a hash, the population and the sums of the positions
+ *     of the live cells. The hash of a generation moved by {@code (dx, dy)} is its hash multiplied by
+ *     {@code A^dx * B^dy} modulo {@code 2^64} when it is the sum of {@link #term(long, long)} over the
+ *     live cells, and the sums grow by {@code population * dx} and {@code population * dy}, so a
+ *     generation is recognised as an earlier one moved by a whole displacement in constant time.
+ *     Without translations any hash of the cells will do, and the sums may be left to zero.
+ * <p>
+ *     A match with one of the recorded generations is a candidate cycle (a still life, an oscillator,
+ *     or a spaceship when the displacement is not zero), which is confirmed once every generation of
+ *     one more full period matches as well. The nearest match is tried first, so the shortest period
+ *     is found.
+ */
+final class CycleHistory {
+    // Odd multipliers of the hash, invertible modulo 2^64
+    private static final long A = 0x9E3779B97F4A7C15L;
+    private static final long B = 0xC2B2AE3D27D4EB4FL;
+    private static final long A_INVERSE = inverse(A);
+    private static final long B_INVERSE = inverse(B);
+
+    final private boolean translations;
+
+    // The signatures of the last generations, the generation g being at index g % capacity
+    final private long[] hashes;
+
+    final private long[] populations;
+
+    final private long[] sumsX;
+
+    final private long[] sumsY;
+
+    // Number of generations recorded, the next one being recorded at this index
+    private long recorded;
+
+    // The candidate or confirmed cycle, period 0 if none
+    private long start;
+
+    private long period;
+
+    private long displacementX;
+
+    private long displacementY;
+
+    // Number of consecutive generations matching the candidate cycle
+    private long matches;
+
+    private boolean confirmed;
+
+    /**
+     * Create an empty history.
+     *
+     * @param capacity the number of generations kept, the longest period which can be found
+     * @param translations {@code true} to find the cycles moving the pattern, with hashes made of
+     *                     {@link #term(long, long)}
+     * @throws IllegalArgumentException if {@code capacity} is less than 2
+     */
+    CycleHistory(final int capacity, final boolean translations) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException();
+        }
+        this.translations = translations;
+        hashes = new long[capacity];
+        populations = new long[capacity];
+        sumsX = new long[capacity];
+        sumsY = new long[capacity];
+    }
+
+    /**
+     * @return The contribution of a live cell to the hash of a generation, for the cycles moving the pattern
+     */
+    static long term(final long x, final long y) {
+        return power(A, A_INVERSE, x) * power(B, B_INVERSE, y);
+    }
+
+    /**
+     * Forget every recorded generation, to follow another system.
+     */
+    void clear() {
+        recorded = 0;
+        period = 0;
+        matches = 0;
+        confirmed = false;
+    }
+
+    /**
+     * Record the next generation, and look for a cycle ending with it.
+     *
+     * @param hash the hash of the live cells
+     * @param population the number of live cells
+     * @param sumX the sum of the x positions of the live cells
+     * @param sumY the sum of the y positions of the live cells
+     * @return {@code true} if a cycle is confirmed, after which the generations are not recorded any more
+     */
+    boolean record(final long hash, final long population, final long sumX, final long sumY) {
+        if (confirmed) {
+            return true;
+        }
+        long generation = recorded;
+        if (period != 0) {
+            if (matches(generation - period, displacementX, displacementY, hash, population, sumX, sumY)) {
+                confirmed = ++matches > period;
+            } else {
+                period = 0;
+            }
+        }
+        if (period == 0) {
+            long oldest = Math.max(0, generation - hashes.length);
+            for (long g = generation - 1; g >= oldest; g--) {
+                if (match(g, hash, population, sumX, sumY)) {
+                    break;
+                }
+            }
+        }
+
+        int index = (int) (generation % hashes.length);
+        hashes[index] = hash;
+        populations[index] = population;
+        sumsX[index] = sumX;
+        sumsY[index] = sumY;
+        recorded++;
+        return confirmed;
+    }
+
+    /**
+     * @return The index in the recorded generations of the first generation of the confirmed cycle
+     */
+    long getStart() {
+        return start;
+    }
+
+    /**
+     * @return The period of the confirmed cycle
+     */
+    long getPeriod() {
+        return period;
+    }
+
+    /**
+     * @return The displacement of the pattern over a period of the confirmed cycle
+     */
+    long getDisplacementX() {
+        return displacementX;
+    }
+
+    long getDisplacementY() {
+        return displacementY;
+    }
+
+    /**
+     * Take the given generation of the history as the start of a candidate cycle if the current
+     * generation is the same moved by a whole displacement.
+     *
+     * @return {@code true} if the generation is a candidate
+     */
+    private boolean match(final long generation, final long hash, final long population, final long sumX,
+                          final long sumY) {
+        int index = (int) (generation % hashes.length);
+        if (populations[index] != population) {
+            return false;
+        }
+        long dx = 0;
+        long dy = 0;
+        if (population != 0) {
+            long deltaX = sumX - sumsX[index];
+            long deltaY = sumY - sumsY[index];
+            if (deltaX % population != 0 || deltaY % population != 0) {
+                return false;
+            }
+            dx = deltaX / population;
+            dy = deltaY / population;
+        }
+        if (!matches(generation, dx, dy, hash, population, sumX, sumY)) {
+            return false;
+        }
+        start = generation;
+        period = recorded - generation;
+        displacementX = dx;
+        displacementY = dy;
+        matches = 1;
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the current generation is the given generation of the history moved by the displacement
+     */
+    private boolean matches(final long generation, final long dx, final long dy, final long hash,
+                            final long population, final long sumX, final long sumY) {
+        if ((dx != 0 || dy != 0) && !translations) {
+            return false;
+        }
+        int index = (int) (generation % hashes.length);
+        return populations[index] == population
+                && sumsX[index] + population * dx == sumX
+                && sumsY[index] + population * dy == sumY
+                && hashes[index] * power(A, A_INVERSE, dx) * power(B, B_INVERSE, dy) == hash;
+    }
+
+    /**
+     * @return {@code base^exponent} modulo {@code 2^64}, negative exponents using the inverse of the base
+     */
+    private static long power(final long base, final long inverse, final long exponent) {
+        long factor = exponent < 0 ? inverse : base;
+        long e = Math.abs(exponent);
+        long result = 1;
+        while (e != 0) {
+            if ((e & 1) != 0) {
+                result *= factor;
+            }
+            factor *= factor;
+            e >>>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * @return The inverse of an odd number modulo {@code 2^64}, by Newton's iteration
+     */
+    private static long inverse(final long odd) {
+        long inverse = odd;
+        for (int i = 0; i < 5; i++) {
+            inverse *= 2 - odd * inverse;
+        }
+        return inverse;
+    }
+}
@@ -0,0 +1,155 @@
+package com.company.conway;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Coordinator of a board split in bands of rows evolved by separate {@link DistributedWorker} processes.
+ * <p>
+ *     The coordinator waits for the given number of workers, splits the rows of the pattern in as many
+ *     bands and streams every worker its band, one row of words at a time, with the address of the
+ *     worker owning the band above. The neighbouring workers then exchange their border rows directly
+ *     at every generation, the coordinator only handling the barriers: it sends every worker a step
+ *     command and waits for all of them to report their population before the next one. The
+ *     workers only know the addresses they said hello with, so they can run on the same box as on
+ *     several nodes.
+ * <p>
+ *     The grid is bounded like the one of {@link BitwiseGameOfLife}: the cells outside of the pattern
+ *     are always dead, and the first and the last bands have no neighbour on their outer side.
+ * <p>
+ *     Usage: {@code DistributedCoordinator <pattern file> <workers> <generations> [port] [generations per barrier]},
+ *     then start every worker with {@code DistributedWorker <coordinator host> <port>}.
+ */
+public class DistributedCoordinator {
+    // Default port the workers connect to
+    static final int DEFAULT_PORT = 7070;
+
+    /**
+     * Running a distributed board.
+     *
+     * @param args the pattern file, the number of workers, the number of generations, optionally
+     *             the port and the number of generations between two barriers
+     * @throws IOException if the pattern file can not be read or a worker fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || args.length > 5) {
+            System.err.println("Usage: DistributedCoordinator <pattern file> <workers> <generations> "
+                    + "[port] [generations per barrier]");
+            System.exit(2);
+        }
+        Pattern pattern = PatternReader.read(Paths.get(args[0]));
+        int workers = Integer.parseInt(args[1]);
+        long generations = Long.parseLong(args[2]);
+        int port = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_PORT;
+        long barrier = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        if (workers < 1 || workers > pattern.getVertical() || barrier < 1) {
+            throw new IllegalArgumentException("Between 1 and " + pattern.getVertical()
+                    + " workers are needed, and at least one generation per barrier");
+        }
+
+        SocketChannel[] channels = new SocketChannel[workers];
+        InetSocketAddress[] addresses = new InetSocketAddress[workers];
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(port));
+            System.out.println("waiting for " + workers + " workers on port " + port);
+            for (int rank = 0; rank < workers; rank++) {
+                channels[rank] = server.accept();
+                DistributedProtocol.expect(channels[rank], buffer, DistributedProtocol.HELLO);
+                addresses[rank] = DistributedProtocol.readAddress(channels[rank], buffer);
+                System.out.println("worker " + rank + " at " + addresses[rank]);
+            }
+        }
+
+        try {
+            long start = System.nanoTime();
+            assign(pattern, channels, addresses);
+            long assigned = System.nanoTime();
+
+            long generation = 0;
+            long population = 0;
+            while (generation < generations) {
+                long count = Math.min(barrier, generations - generation);
+                for (SocketChannel channel : channels) {
+                    buffer.clear();
+                    buffer.putInt(DistributedProtocol.STEP).putLong(count).flip();
+                    DistributedProtocol.write(channel, buffer);
+                }
+                population = 0;
+                for (SocketChannel channel : channels) {
+                    DistributedProtocol.expect(channel, buffer, DistributedProtocol.DONE);
+                    ByteBuffer done = DistributedProtocol.read(channel, buffer, 2 * Long.BYTES);
+                    if (done.getLong() != generation + count) {
+                        throw new IOException("Worker out of step at generation " + generation);
+                    }
+                    population += done.getLong();
+                }
+                generation += count;
+            }
+            long end = System.nanoTime();
+
+            System.out.println("workers:      " + workers);
+            System.out.println("rule:         " + pattern.getRule());
+            System.out.printf("assign:       %.3f ms%n", (assigned - start) / 1e6);
+            System.out.printf("run:          %.3f ms%n", (end - assigned) / 1e6);
+            System.out.println("generations:  " + generation);
+            System.out.printf("gen/s:        %.1f%n", generation / ((end - assigned) / 1e9));
+            System.out.println("population:   " + population);
+        } finally {
+            for (SocketChannel channel : channels) {
+                buffer.clear();
+                buffer.putInt(DistributedProtocol.STOP).flip();
+                try {
+                    DistributedProtocol.write(channel, buffer);
+                } catch (IOException e) {
+                    // The worker is already gone
+                }
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Send every worker its band of rows, the first rows of the board going to the first workers.
+     */
+    private static void assign(final Pattern pattern, final SocketChannel[] channels,
+                               final InetSocketAddress[] addresses) throws IOException {
+        int vertical = pattern.getVertical();
+        int horizontal = pattern.getHorizontal();
+        int workers = channels.length;
+        int wordsPerRow = (horizontal + 63) >>> 6;
+        ByteBuffer header = ByteBuffer.allocate(1024);
+        ByteBuffer row = ByteBuffer.allocateDirect(wordsPerRow * Long.BYTES);
+        long[] words = new long[wordsPerRow];
+
+        // The cells of a pattern are sorted row after row, so they are streamed in a single pass
+        int cell = 0;
+        int firstRow = 0;
+        for (int rank = 0; rank < workers; rank++) {
+            int rows = vertical / workers + (rank < vertical % workers ? 1 : 0);
+            header.clear();
+            header.putInt(DistributedProtocol.ASSIGN).putInt(rank).putInt(vertical).putInt(horizontal)
+                    .putInt(firstRow).putInt(rows).putInt(pattern.getRule().getCode());
+            DistributedProtocol.putAddress(header, rank == 0 ? null : addresses[rank - 1]);
+            header.putInt(rank + 1 < workers ? 1 : 0).flip();
+            DistributedProtocol.write(channels[rank], header);
+
+            for (int x = firstRow; x < firstRow + rows; x++) {
+                Arrays.fill(words, 0);
+                while (cell < pattern.size() && pattern.x(cell) == x) {
+                    int y = pattern.y(cell++);
+                    words[y >>> 6] |= 1L << y;
+                }
+                row.clear();
+                row.asLongBuffer().put(words);
+                DistributedProtocol.write(channels[rank], row);
+            }
+            firstRow += rows;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.company.conway;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Messages exchanged by the {@link DistributedCoordinator} and its {@link DistributedWorker}s.
+ * <p>
+ *     Every message starts with an {@code int} type followed by its fields in big endian order,
+ *     over blocking socket channels. A worker says hello with the address its neighbours reach it at,
+ *     receives the assignment of its band of rows followed by the words of the band row after row,
+ *     then evolves the requested number of generations and reports its population after each
+ *     step command, until the coordinator stops it. The halo rows exchanged by the neighbouring
+ *     workers are raw words without any header, since both sides know their size.
+ */
+final class DistributedProtocol {
+    // Worker to coordinator: host, halo port
+    static final int HELLO = 1;
+
+    // Coordinator to worker: rank, vertical, horizontal, first row, rows, rule code,
+    // address of the previous worker (empty host if none), whether a next worker connects, then the words
+    static final int ASSIGN = 2;
+
+    // Coordinator to worker: number of generations to evolve
+    static final int STEP = 3;
+
+    // Worker to coordinator: generation, population
+    static final int DONE = 4;
+
+    // Coordinator to worker: stop and close
+    static final int STOP = 5;
+
+    private DistributedProtocol() {
+    }
+
+    /**
+     * Write the whole buffer, from its position to its limit.
+     */
+    static void write(final SocketChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Read a buffer of the given size in full.
+     *
+     * @return The buffer, flipped for reading
+     * @throws EOFException if the channel is closed before the end of the buffer
+     */
+    static ByteBuffer read(final SocketChannel channel, final ByteBuffer buffer, final int size) throws IOException {
+        buffer.clear().limit(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Read the type of the next message, checking it is the expected one.
+     *
+     * @throws IOException if another message is received
+     */
+    static void expect(final SocketChannel channel, final ByteBuffer buffer, final int type) throws IOException {
+        int received = read(channel, buffer, Integer.BYTES).getInt();
+        if (received != type) {
+            throw new IOException("Unexpected message " + received + ", expected " + type);
+        }
+    }
+
+    static void putAddress(final ByteBuffer buffer, final InetSocketAddress address) {
+        byte[] host = address == null ? new byte[0] : address.getHostString().getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(host.length).put(host).putInt(address == null ? 0 : address.getPort());
+    }
+
+    /**
+     * @return The address read from the channel, or {@code null} if its host is empty
+     */
+    static InetSocketAddress readAddress(final SocketChannel channel, final ByteBuffer buffer) throws IOException {
+        int length = read(channel, buffer, Integer.BYTES).getInt();
+        if (length < 0 || length > buffer.capacity() - Integer.BYTES) {
+            throw new IOException("Invalid host length " + length);
+        }
+        byte[] host = new byte[length];
+        read(channel, buffer, length).get(host);
+        int port = read(channel, buffer, Integer.BYTES).getInt();
+        return length == 0 ? null : new InetSocketAddress(new String(host, StandardCharsets.UTF_8), port);
+    }
+}
@@ -0,0 +1,314 @@
+package com.company.conway;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Worker process evolving a band of rows of a board split by a {@link DistributedCoordinator}.
+ * <p>
+ *     The band is stored as words like in {@link BitwiseGameOfLife}, with one halo row above and below
+ *     holding the border rows of the neighbouring bands. Before every generation the worker sends its
+ *     first row to the worker above and its last row to the worker below, and receives their border
+ *     rows into its halo rows. Both exchanges run at once on non-blocking socket channels driven by a
+ *     {@link Selector}, so two neighbours sending large rows to each other never wait on each other's
+ *     socket buffers. A band without a neighbour on one side keeps a dead halo row on that side.
+ * <p>
+ *     The neighbours reach the worker at the address of its connection to the coordinator, the address
+ *     of the interface routing to it, unless another host is given.
+ * <p>
+ *     Usage: {@code DistributedWorker <coordinator host> [port] [advertised host]}.
+ */
+public class DistributedWorker {
+    // Words of the current and the next generation, with the halo rows and a zero word at the end of every row
+    private long[] currentGeneration;
+
+    private long[] tempGeneration;
+
+    final private int rows;
+
+    final private int horizontal;
+
+    final private int wordsPerRow;
+
+    final private int stride;
+
+    final private long lastWordMask;
+
+    final private Rule rule;
+
+    private long generation;
+
+    // Links to the workers owning the bands above and below, null on the borders of the board
+    private Link previous;
+
+    private Link next;
+
+    private Selector selector;
+
+    private DistributedWorker(final int rows, final int horizontal, final Rule rule) {
+        this.rows = rows;
+        this.horizontal = horizontal;
+        this.rule = rule;
+        wordsPerRow = (horizontal + 63) >>> 6;
+        stride = wordsPerRow + 1;
+        lastWordMask = (horizontal & 63) == 0 ? -1L : (1L << (horizontal & 63)) - 1;
+        if ((long) (rows + 2) * stride > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException();
+        }
+        currentGeneration = new long[(rows + 2) * stride];
+        tempGeneration = new long[(rows + 2) * stride];
+    }
+
+    /**
+     * Running a worker until the coordinator stops it.
+     *
+     * @param args the host of the coordinator, optionally its port and the host the neighbours reach this worker at
+     * @throws IOException if the coordinator or a neighbour fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: DistributedWorker <coordinator host> [port] [advertised host]");
+            System.exit(2);
+        }
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DistributedCoordinator.DEFAULT_PORT;
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        try (SocketChannel coordinator = SocketChannel.open(new InetSocketAddress(args[0], port));
+             ServerSocketChannel halo = ServerSocketChannel.open()) {
+            String host = args.length > 2 ? args[2]
+                    : ((InetSocketAddress) coordinator.getLocalAddress()).getAddress().getHostAddress();
+            halo.bind(new InetSocketAddress(0));
+            buffer.clear();
+            buffer.putInt(DistributedProtocol.HELLO);
+            DistributedProtocol.putAddress(buffer, new InetSocketAddress(host,
+                    ((InetSocketAddress) halo.getLocalAddress()).getPort()));
+            DistributedProtocol.write(coordinator, buffer.flip());
+
+            DistributedProtocol.expect(coordinator, buffer, DistributedProtocol.ASSIGN);
+            ByteBuffer assignment = DistributedProtocol.read(coordinator, buffer, 6 * Integer.BYTES);
+            int rank = assignment.getInt();
+            int vertical = assignment.getInt();
+            int horizontal = assignment.getInt();
+            int firstRow = assignment.getInt();
+            int rows = assignment.getInt();
+            Rule rule = Rule.of(assignment.getInt());
+            InetSocketAddress above = DistributedProtocol.readAddress(coordinator, buffer);
+            boolean below = DistributedProtocol.read(coordinator, buffer, Integer.BYTES).getInt() != 0;
+            System.out.println("worker " + rank + ": rows " + firstRow + " to " + (firstRow + rows - 1)
+                    + " of " + vertical + "x" + horizontal + ", " + rule);
+
+            DistributedWorker worker = new DistributedWorker(rows, horizontal, rule);
+            worker.readBand(coordinator);
+            // Connecting first never blocks on the neighbour, whose halo socket is already listening
+            worker.connect(above == null ? null : SocketChannel.open(above), below ? halo.accept() : null);
+            try {
+                worker.serve(coordinator, buffer);
+            } finally {
+                worker.close();
+            }
+        }
+    }
+
+    /**
+     * Read the words of the band, row after row.
+     */
+    private void readBand(final SocketChannel coordinator) throws IOException {
+        ByteBuffer row = ByteBuffer.allocateDirect(wordsPerRow * Long.BYTES);
+        for (int i = 0; i < rows; i++) {
+            DistributedProtocol.read(coordinator, row, row.capacity())
+                    .asLongBuffer().get(currentGeneration, (i + 1) * stride, wordsPerRow);
+        }
+    }
+
+    private void connect(final SocketChannel above, final SocketChannel below) throws IOException {
+        selector = Selector.open();
+        if (above != null) {
+            previous = new Link(above, 0, 1);
+        }
+        if (below != null) {
+            next = new Link(below, rows + 1, rows);
+        }
+    }
+
+    /**
+     * Evolve the requested generations until the coordinator stops the worker.
+     */
+    private void serve(final SocketChannel coordinator, final ByteBuffer buffer) throws IOException {
+        while (true) {
+            int type = DistributedProtocol.read(coordinator, buffer, Integer.BYTES).getInt();
+            if (type == DistributedProtocol.STOP) {
+                return;
+            }
+            if (type != DistributedProtocol.STEP) {
+                throw new IOException("Unexpected message " + type);
+            }
+            long count = DistributedProtocol.read(coordinator, buffer, Long.BYTES).getLong();
+            for (long i = 0; i < count; i++) {
+                exchangeHalos();
+                nextGeneration();
+            }
+            buffer.clear();
+            buffer.putInt(DistributedProtocol.DONE).putLong(generation).putLong(getPopulation()).flip();
+            DistributedProtocol.write(coordinator, buffer);
+        }
+    }
+
+    /**
+     * Send the border rows of the band to the neighbours and receive theirs into the halo rows.
+     */
+    private void exchangeHalos() throws IOException {
+        int pending = 0;
+        if (previous != null) {
+            pending += previous.start();
+        }
+        if (next != null) {
+            pending += next.start();
+        }
+        while (pending > 0) {
+            selector.select();
+            for (SelectionKey key : selector.selectedKeys()) {
+                pending -= ((Link) key.attachment()).transfer(key);
+            }
+            selector.selectedKeys().clear();
+        }
+        if (previous != null) {
+            previous.finish();
+        }
+        if (next != null) {
+            next.finish();
+        }
+    }
+
+    /**
+     * Compute the next generation of the band from its rows and its halo rows.
+     */
+    private void nextGeneration() {
+        final long[] cur = currentGeneration;
+        for (int row = 1; row <= rows; row++) {
+            final int c = row * stride;
+            final int n = c - stride;
+            final int s = c + stride;
+
+            // Sliding 3x3 window of words, the west column starts on the (dead) outside of the grid
+            long nw = 0, w = 0, sw = 0;
+            long nc = cur[n], cc = cur[c], sc = cur[s];
+            for (int k = 0; k < wordsPerRow; k++) {
+                long ne = cur[n + k + 1];
+                long ce = cur[c + k + 1];
+                long se = cur[s + k + 1];
+
+                tempGeneration[c + k] = BitKernel.evolve(rule, nw, nc, ne, w, cc, ce, sw, sc, se);
+
+                nw = nc;
+                nc = ne;
+                w = cc;
+                cc = ce;
+                sw = sc;
+                sc = se;
+            }
+            tempGeneration[c + wordsPerRow - 1] &= lastWordMask;
+        }
+        long[] words = currentGeneration;
+        currentGeneration = tempGeneration;
+        tempGeneration = words;
+        generation++;
+    }
+
+    private long getPopulation() {
+        long population = 0;
+        for (int i = stride; i < (rows + 1) * stride; i++) {
+            population += Long.bitCount(currentGeneration[i]);
+        }
+        return population;
+    }
+
+    private void close() throws IOException {
+        if (previous != null) {
+            previous.channel.close();
+        }
+        if (next != null) {
+            next.channel.close();
+        }
+        selector.close();
+    }
+
+    /**
+     * Connection to a neighbouring worker, sending one border row and receiving one halo row per generation.
+     */
+    private final class Link {
+        final private SocketChannel channel;
+
+        final private SelectionKey key;
+
+        // The row of the words received from the neighbour, and the row sent to it
+        final private int haloRow;
+
+        final private int borderRow;
+
+        final private ByteBuffer send;
+
+        final private ByteBuffer receive;
+
+        Link(final SocketChannel channel, final int haloRow, final int borderRow) throws IOException {
+            this.channel = channel;
+            this.haloRow = haloRow;
+            this.borderRow = borderRow;
+            channel.configureBlocking(false);
+            key = channel.register(selector, 0, this);
+            send = ByteBuffer.allocateDirect(wordsPerRow * Long.BYTES);
+            receive = ByteBuffer.allocateDirect(wordsPerRow * Long.BYTES);
+        }
+
+        /**
+         * Copy the border row to the send buffer and wait for both directions.
+         *
+         * @return The number of pending transfers, 2
+         */
+        int start() {
+            send.clear();
+            send.asLongBuffer().put(currentGeneration, borderRow * stride, wordsPerRow);
+            receive.clear();
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            return 2;
+        }
+
+        /**
+         * Move the bytes the channel is ready for.
+         *
+         * @return The number of transfers completed by the call
+         */
+        int transfer(final SelectionKey selected) throws IOException {
+            int completed = 0;
+            if (selected.isWritable() && send.hasRemaining()) {
+                channel.write(send);
+                if (!send.hasRemaining()) {
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                    completed++;
+                }
+            }
+            if (selected.isReadable() && receive.hasRemaining()) {
+                if (channel.read(receive) < 0) {
+                    throw new IOException("Neighbour closed the connection");
+                }
+                if (!receive.hasRemaining()) {
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                    completed++;
+                }
+            }
+            return completed;
+        }
+
+        /**
+         * Copy the received words to the halo row.
+         */
+        void finish() {
+            receive.flip();
+            receive.asLongBuffer().get(currentGeneration, haloRow * stride, wordsPerRow);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.company.conway;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Quick throughput check of the Game Of Life engines, the measurements being made by the JMH benchmarks
+ * of the {@code benchmarks} module.
+ * <p>
+ *     Every engine is evolved on the same boards: random soups of several sizes and densities,
+ *     and the standard seeds placed at the centre of an empty board. For each case the engine
+ *     is first warmed up so the JIT compiler settles, then evolved flat out during a fixed
+ *     number of measurement windows, and the check reports the generations per second,
+ *     the cells per second and the bytes allocated per generation by the benchmark thread.
+ *     The cells per second, generations per second times the board area, are only reported for
+ *     the bounded engines: the unbounded ones evolve a plane growing with the pattern rather than
+ *     the board. Allocations made by other threads, like the workers of the parallel engine, are
+ *     not counted.
+ * <p>
+ *     Options are given as {@code key=value} arguments, for example
+ *     {@code engines=bitwise,sparse sizes=256,1024 densities=0.5 seeds=random,gun warmup=2000 measure=2000}.
+ *     Every board evolves with the Conway's rule unless another one is given, like {@code rule=B36/S23}.
+ * <p>
+ *     The {@code vector} engine only uses its SIMD kernel when the JVM runs with
+ *     {@code --add-modules jdk.incubator.vector -Dconway.vector=true}, for example to compare it
+ *     with the scalar word engine on large boards: {@code engines=bitwise,vector sizes=8192 seeds=random}.
+ */
+public class EngineBenchmark {
+    // The seed of the random soups, so every engine evolves the same boards
+    private static final long SOUP_SEED = 20220922L;
+
+    /**
+     * Running the benchmark.
+     *
+     * @param args {@code key=value} options of the benchmark
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = new LinkedHashMap<String, String>();
+        options.put("engines", EngineType.keys());
+        options.put("sizes", "64,256,1024");
+        options.put("densities", "0.1,0.35,0.5");
+        options.put("seeds", "random,gun,beacon");
+        options.put("warmup", "1000");
+        options.put("measure", "1000");
+        options.put("iterations", "3");
+        options.put("rule", "B3/S23");
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0 || !options.containsKey(arg.substring(0, separator))) {
+                throw new IllegalArgumentException("Unknown option " + arg + ", expected one of " + options.keySet());
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        long warmup = Long.parseLong(options.get("warmup"));
+        long measure = Long.parseLong(options.get("measure"));
+        int iterations = Integer.parseInt(options.get("iterations"));
+        Rule rule = Rule.parse(options.get("rule"));
+
+        if (Arrays.asList(options.get("engines").split(",")).contains(EngineType.VECTOR.getKey())) {
+            System.out.println("vector kernel: " + (Boolean.getBoolean(VectorGameOfLife.VECTOR_PROPERTY)
+                    && VectorGameOfLife.isVectorSupported() ? "simd" : "scalar"));
+        }
+        System.out.printf("%-10s %-14s %8s %14s %14s %14s%n",
+                "engine", "seed", "size", "gen/s", "Mcells/s", "B/gen");
+        for (String seed : options.get("seeds").split(",")) {
+            for (String size : options.get("sizes").split(",")) {
+                for (String density : densitiesOf(seed, options.get("densities"))) {
+                    byte[][] board = board(seed, Integer.parseInt(size), Double.parseDouble(density));
+                    String name = seed.equals("random") ? "random(" + density + ")" : seed;
+                    for (String engine : options.get("engines").split(",")) {
+                        Result result = measure(EngineType.fromKey(engine), board, rule, warmup, measure, iterations);
+                        String cells = Double.isNaN(result.cellsPerSecond) ? "-"
+                                : String.format("%.3f", result.cellsPerSecond / 1e6);
+                        System.out.printf("%-10s %-14s %8s %14.1f %14s %14.0f%n", engine, name, size,
+                                result.generationsPerSecond, cells, result.bytesPerGeneration);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Evolve a new engine on the board, warm it up then measure it.
+     *
+     * @param type the type of the engine
+     * @param board the seed of the engine
+     * @param rule the rule the engine evolves with
+     * @param warmup the warm up duration in milliseconds
+     * @param measure the duration of a measurement window in milliseconds
+     * @param iterations the number of measurement windows
+     * @return The mean of the measurement windows, without cells per second for an unbounded engine
+     */
+    static Result measure(final EngineType type, final byte[][] board, final Rule rule,
+                          final long warmup, final long measure, final int iterations) {
+        LifeEngine engine = type.create(Pattern.fromSeed(board).withRule(rule));
+        long end = System.nanoTime() + warmup * 1_000_000L;
+        while (System.nanoTime() < end) {
+            engine.step();
+        }
+
+        long generations = 0;
+        long nanos = 0;
+        long bytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            end = start + measure * 1_000_000L;
+            long now;
+            do {
+                engine.step();
+                generations++;
+            } while ((now = System.nanoTime()) < end);
+            nanos += now - start;
+            bytes += allocatedBytes() - allocated;
+        }
+
+        double seconds = nanos / 1e9;
+        long area = (long) board.length * board[0].length;
+        double cells = engine.isBounded() ? generations * area / seconds : Double.NaN;
+        return new Result(generations / seconds, cells, (double) bytes / generations);
+    }
+
+    /**
+     * @return The number of bytes allocated by the current thread so far, or {@code 0} if the JVM can not tell
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static List<String> densitiesOf(final String seed, final String densities) {
+        // The density only applies to the random soups
+        return seed.equals("random") ? Arrays.asList(densities.split(",")) : Arrays.asList("0");
+    }
+
+    /**
+     * Create a square board for a benchmark case.
+     *
+     * @param seed {@code random} for a random soup, otherwise the name of a standard seed
+     * @param size The width and height of the board
+     * @param density The probability of a cell of a random soup to be alive
+     * @return The board
+     */
+    static byte[][] board(final String seed, final int size, final double density) {
+        byte[][] board = new byte[size][size];
+        if (seed.equals("random")) {
+            Random random = new Random(SOUP_SEED);
+            for (byte[] row : board) {
+                for (int j = 0; j < size; j++) {
+                    row[j] = (byte) (random.nextDouble() < density ? 1 : 0);
+                }
+            }
+            return board;
+        }
+
+        byte[][] pattern;
+        if (seed.equals("gun")) {
+            pattern = Seeds.GLIDER_GUN;
+        } else if (seed.equals("beacon")) {
+            pattern = Seeds.BEACON;
+        } else if (seed.equals("glider")) {
+            pattern = Seeds.GLIDER;
+        } else {
+            throw new IllegalArgumentException("Unknown seed " + seed);
+        }
+        if (pattern.length > size || pattern[0].length > size) {
+            throw new IllegalArgumentException("The board is too small for the seed " + seed);
+        }
+        int top = (size - pattern.length) / 2;
+        int left = (size - pattern[0].length) / 2;
+        for (int i = 0; i < pattern.length; i++) {
+            System.arraycopy(pattern[i], 0, board[top + i], left, pattern[i].length);
+        }
+        return board;
+    }
+
+    /**
+     * The throughput of an engine on a benchmark case.
+     */
+    static final class Result {
+        final double generationsPerSecond;
+
+        // NaN for an unbounded engine
+        final double cellsPerSecond;
+
+        final double bytesPerGeneration;
+
+        Result(final double generationsPerSecond, final double cellsPerSecond, final double bytesPerGeneration) {
+            this.generationsPerSecond = generationsPerSecond;
+            this.cellsPerSecond = cellsPerSecond;
+            this.bytesPerGeneration = bytesPerGeneration;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.company.conway;
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The metrics of an engine metered by {@link MeteredEngine}, readable from any thread.
+ * <p>
+ *     The metered engine publishes the state of every generation once it is complete, so a reader
+ *     never sees the population of a generation with the births of another one. The metrics can be
+ *     registered as a JMX MBean under {@code com.company.conway:type=Engine,name=<name>}, and
+ *     printed as a periodic log line with {@link #startLog(PrintStream, long)}.
+ */
+class EngineMetrics implements EngineMetricsMBean {
+    // The domain of the registered MBeans
+    static final String DOMAIN = "com.company.conway";
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    // The state of the last complete generation
+    private volatile Snapshot snapshot = new Snapshot(0, 0, 0, 0, null);
+
+    private volatile long totalBirths;
+
+    private volatile long totalDeaths;
+
+    // Generations and time spent stepping the engine, and the cells of the bounding boxes evolved meanwhile
+    private volatile long ticks;
+
+    private volatile long busyNanos;
+
+    private volatile long cells;
+
+    private volatile boolean resetRequested;
+
+    // The name the MBean is registered with, null if it is not registered
+    private ObjectName objectName;
+
+    /**
+     * Publish the state of a generation, from the stepping thread only.
+     *
+     * @param generation The generation
+     * @param population The number of live cells
+     * @param births The number of cells born by the generation
+     * @param deaths The number of cells which died in the generation
+     * @param box The bounding box as {@code {minX, minY, maxX, maxY}}, or {@code null} if there is no live cell
+     */
+    void publish(final long generation, final long population, final long births, final long deaths,
+                 final long[] box) {
+        snapshot = new Snapshot(generation, population, births, deaths, box);
+    }
+
+    /**
+     * Record a generation evolved by the engine, from the stepping thread only.
+     *
+     * @param nanos The time taken by the generation
+     * @param births The number of cells born by the generation
+     * @param deaths The number of cells which died in the generation
+     * @param area The number of cells of the bounding box in the generation
+     */
+    void recordTick(final long nanos, final long births, final long deaths, final long area) {
+        if (resetRequested) {
+            resetRequested = false;
+            latencies.reset();
+        }
+        latencies.record(nanos);
+        ticks++;
+        busyNanos += nanos;
+        cells += area;
+        totalBirths += births;
+        totalDeaths += deaths;
+    }
+
+    @Override
+    public long getGeneration() {
+        return snapshot.generation;
+    }
+
+    @Override
+    public long getPopulation() {
+        return snapshot.population;
+    }
+
+    @Override
+    public long getBirths() {
+        return snapshot.births;
+    }
+
+    @Override
+    public long getDeaths() {
+        return snapshot.deaths;
+    }
+
+    @Override
+    public long getTotalBirths() {
+        return totalBirths;
+    }
+
+    @Override
+    public long getTotalDeaths() {
+        return totalDeaths;
+    }
+
+    @Override
+    public long[] getBoundingBox() {
+        long[] box = snapshot.box;
+        return box == null ? new long[0] : box.clone();
+    }
+
+    @Override
+    public long getTicks() {
+        return ticks;
+    }
+
+    @Override
+    public double getGenerationsPerSecond() {
+        long nanos = busyNanos;
+        return nanos == 0 ? 0 : ticks * 1e9 / nanos;
+    }
+
+    @Override
+    public double getCellsPerSecond() {
+        long nanos = busyNanos;
+        return nanos == 0 ? 0 : cells * 1e9 / nanos;
+    }
+
+    @Override
+    public long getTickLatencyMeanNanos() {
+        return latencies.getMean();
+    }
+
+    @Override
+    public long getTickLatencyMedianNanos() {
+        return latencies.getPercentile(50);
+    }
+
+    @Override
+    public long getTickLatency99thPercentileNanos() {
+        return latencies.getPercentile(99);
+    }
+
+    @Override
+    public long getTickLatencyMaxNanos() {
+        return latencies.getMax();
+    }
+
+    @Override
+    public void resetLatencies() {
+        // The histogram is only written by the stepping thread, which resets it on its next tick
+        resetRequested = true;
+    }
+
+    /**
+     * Register the metrics in the platform MBean server.
+     *
+     * @param name The name of the engine in the object name of the MBean
+     * @throws JMException if the MBean can not be registered, for example if the name is taken
+     * @throws IllegalStateException if the metrics are already registered
+     */
+    synchronized void register(final String name) throws JMException {
+        if (objectName != null) {
+            throw new IllegalStateException();
+        }
+        ObjectName objectName = new ObjectName(DOMAIN + ":type=Engine,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        this.objectName = objectName;
+    }
+
+    /**
+     * Remove the metrics from the platform MBean server, if they are registered.
+     *
+     * @throws JMException if the MBean can not be unregistered
+     */
+    synchronized void unregister() throws JMException {
+        if (objectName != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            objectName = null;
+        }
+    }
+
+    /**
+     * Print a line of metrics periodically, from a daemon thread.
+     *
+     * @param out The stream of the log lines
+     * @param periodMillis The period of the log lines in milliseconds
+     * @return The handle stopping the log lines when closed
+     * @throws IllegalArgumentException if the period is not positive
+     */
+    Closeable startLog(final PrintStream out, final long periodMillis) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException();
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "engine-metrics-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(() -> out.println(toString()), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        return executor::shutdownNow;
+    }
+
+    @Override
+    public String toString() {
+        Snapshot s = snapshot;
+        StringBuilder builder = new StringBuilder();
+        builder.append("generation ").append(s.generation)
+                .append(" population ").append(s.population)
+                .append(" births ").append(s.births)
+                .append(" deaths ").append(s.deaths);
+        if (s.box == null) {
+            builder.append(" box empty");
+        } else {
+            builder.append(" box (").append(s.box[0]).append(", ").append(s.box[1])
+                    .append(")..(").append(s.box[2]).append(", ").append(s.box[3]).append(")");
+        }
+        builder.append(String.format(" %.1f gen/s %.3f Mcells/s tick mean %d us p50 %d us p99 %d us max %d us",
+                getGenerationsPerSecond(), getCellsPerSecond() / 1e6, getTickLatencyMeanNanos() / 1000,
+                getTickLatencyMedianNanos() / 1000, getTickLatency99thPercentileNanos() / 1000,
+                getTickLatencyMaxNanos() / 1000));
+        return builder.toString();
+    }
+
+    /**
+     * The state of a complete generation.
+     */
+    private static final class Snapshot {
+        final long generation;
+
+        final long population;
+
+        final long births;
+
+        final long deaths;
+
+        final long[] box;
+
+        Snapshot(final long generation, final long population, final long births, final long deaths,
+                 final long[] box) {
+            this.generation = generation;
+            this.population = population;
+            this.births = births;
+            this.deaths = deaths;
+            this.box = box;
+        }
+    }
+}
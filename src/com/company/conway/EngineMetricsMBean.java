@@ -0,0 +1,71 @@
+package com.company.conway;
+
+/**
+ * Management interface of the {@link EngineMetrics} of an engine, as seen by JMX clients.
+ */
+public interface EngineMetricsMBean {
+
+    /**
+     * @return The number of generations evolved since the seed
+     */
+    long getGeneration();
+
+    /**
+     * @return The number of live cells in the current generation
+     */
+    long getPopulation();
+
+    /**
+     * @return The number of cells born in the last generation
+     */
+    long getBirths();
+
+    /**
+     * @return The number of cells which died in the last generation
+     */
+    long getDeaths();
+
+    /**
+     * @return The number of cells born since the metering started
+     */
+    long getTotalBirths();
+
+    /**
+     * @return The number of cells which died since the metering started
+     */
+    long getTotalDeaths();
+
+    /**
+     * @return The smallest rectangle holding the live cells as {@code {minX, minY, maxX, maxY}},
+     *          an empty array if there is no live cell
+     */
+    long[] getBoundingBox();
+
+    /**
+     * @return The number of generations evolved since the metering started
+     */
+    long getTicks();
+
+    /**
+     * @return The generations per second while the engine is stepping
+     */
+    double getGenerationsPerSecond();
+
+    /**
+     * @return The cells of the bounding box evolved per second while the engine is stepping
+     */
+    double getCellsPerSecond();
+
+    long getTickLatencyMeanNanos();
+
+    long getTickLatencyMedianNanos();
+
+    long getTickLatency99thPercentileNanos();
+
+    long getTickLatencyMaxNanos();
+
+    /**
+     * Forget the tick latencies recorded so far, the next tick starting a new histogram.
+     */
+    void resetLatencies();
+}
@@ -0,0 +1,84 @@
+package com.company.conway;
+
+import java.util.function.Function;
+
+/**
+ * The Game Of Life engines which can be chosen by name, by the benchmark and the batch runner.
+ */
+enum EngineType {
+    BITSET(GameOfLife::new),
+    TORUS(pattern -> new GameOfLife(pattern, Topology.TORUS)),
+    KLEIN(pattern -> new GameOfLife(pattern, Topology.KLEIN_BOTTLE)),
+    FREE(FreeGameOfLife::new),
+    BLOCK(BlockGameOfLife::new),
+    CONWAY(ConwayGameOfLife::new),
+    BITWISE(BitwiseGameOfLife::new),
+    PARALLEL(pattern -> new BitwiseGameOfLife(pattern, Runtime.getRuntime().availableProcessors())),
+    VECTOR(VectorGameOfLife::new),
+    MAPPED(MappedGameOfLife::new),
+    SPARSE(SparseGameOfLife::new),
+    HASHLIFE(HashLife::new);
+
+    final private Function<Pattern, LifeEngine> factory;
+
+    EngineType(final Function<Pattern, LifeEngine> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Create a new engine of this type.
+     *
+     * @param seedOfTheSystem seed of the system
+     * @return The engine, in the generation of the seed
+     */
+    LifeEngine create(final byte[][] seedOfTheSystem) {
+        return create(Pattern.fromSeed(seedOfTheSystem));
+    }
+
+    /**
+     * Create a new engine of this type.
+     *
+     * @param pattern the pattern of the seed
+     * @return The engine, in the generation of the pattern
+     */
+    LifeEngine create(final Pattern pattern) {
+        return factory.apply(pattern);
+    }
+
+    /**
+     * @return The name of the engine on the command line
+     */
+    String getKey() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * Find an engine by its name on the command line.
+     *
+     * @param key The name of the engine, like {@code bitwise}
+     * @return The engine type
+     * @throws IllegalArgumentException if there is no engine with that name
+     */
+    static EngineType fromKey(final String key) {
+        for (EngineType type : values()) {
+            if (type.getKey().equals(key)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown engine " + key + ", expected one of " + keys());
+    }
+
+    /**
+     * @return The names of all engines, separated by commas
+     */
+    static String keys() {
+        StringBuilder builder = new StringBuilder();
+        for (EngineType type : values()) {
+            if (builder.length() > 0) {
+                builder.append(",");
+            }
+            builder.append(type.getKey());
+        }
+        return builder.toString();
+    }
+}
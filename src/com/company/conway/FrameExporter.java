@@ -0,0 +1,159 @@
+package com.company.conway;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Recorder of the generations of an engine as image frames, encoded on a separate thread.
+ * <p>
+ *     The exporter listens to the changes of the engine with {@link RegionCells}, which keeps the cells
+ *     of a region packed as words in the layout of the frames. Capturing a frame
+ *     only copies these words into a recycled buffer handed to the encoder thread, so the engine
+ *     goes on evolving while the previous frames are compressed and written by a {@link FrameWriter}.
+ *     At most {@value #QUEUED_FRAMES} frames wait for the encoder: a faster engine is then held back
+ *     rather than filling the memory.
+ */
+class FrameExporter implements AutoCloseable {
+    // Number of captured frames waiting for the encoder at most
+    static final int QUEUED_FRAMES = 8;
+
+    // Frame queued to stop the encoder thread
+    private static final long[] END = new long[0];
+
+    final private LifeEngine engine;
+
+    final private FrameWriter writer;
+
+    final private RegionCells region;
+
+    // The cells of the region in the current generation, in the layout of the frames
+    final private long[] cells;
+
+    final private BlockingQueue<long[]> frames = new ArrayBlockingQueue<long[]>(QUEUED_FRAMES);
+
+    // Buffers of the frames already encoded, one more than the queue for the frame being encoded
+    final private BlockingQueue<long[]> free = new ArrayBlockingQueue<long[]>(QUEUED_FRAMES + 1);
+
+    final private Thread encoder;
+
+    // The failure of the encoder thread, rethrown to the capturing thread
+    private volatile IOException failure;
+
+    /**
+     * Create the exporter of a region of an engine, and start listening to the changes of the engine.
+     *
+     * @param engine The engine to record
+     * @param top The x position of the north west cell of the region
+     * @param left The y position of the north west cell of the region
+     * @param vertical The number of rows of the region
+     * @param horizontal The number of columns of the region
+     * @param writer The encoder of the frames, closed with the exporter, or at once if the exporter fails
+     * @throws IllegalArgumentException if the region is empty or too large for a single array
+     * @throws UnsupportedOperationException if the engine can not report its changes
+     */
+    FrameExporter(final LifeEngine engine, final long top, final long left, final int vertical,
+                  final int horizontal, final FrameWriter writer) {
+        this.engine = engine;
+        this.writer = writer;
+        try {
+            this.region = new RegionCells(top, left, vertical, horizontal, false);
+            engine.addCellListener(region);
+        } catch (RuntimeException e) {
+            // Never started, the writer is not closed by the encoder thread
+            try {
+                writer.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        this.cells = region.getWords();
+
+        encoder = new Thread(this::encode, "frame-encoder");
+        encoder.setDaemon(true);
+        encoder.start();
+    }
+
+    /**
+     * Capture the current generation of the engine as the next frame, from the thread stepping the engine.
+     *
+     * @throws IOException if a previous frame could not be written
+     */
+    void capture() throws IOException {
+        checkFailure();
+        long[] frame = free.poll();
+        if (frame == null) {
+            frame = new long[cells.length];
+        }
+        System.arraycopy(cells, 0, frame, 0, cells.length);
+        put(frame);
+    }
+
+    /**
+     * Stop listening to the engine, wait for the captured frames to be written, then close the writer.
+     *
+     * @throws IOException if a frame could not be written, or the writer could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        engine.removeCellListener(region);
+        put(END);
+        try {
+            encoder.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        checkFailure();
+    }
+
+    private void put(final long[] frame) throws IOException {
+        try {
+            frames.put(frame);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    /**
+     * Body of the encoder thread, writing the frames until the end of the recording.
+     */
+    private void encode() {
+        try {
+            while (true) {
+                long[] frame = frames.take();
+                if (frame == END) {
+                    break;
+                }
+                // After a failure the frames are still taken, so the capturing thread is never blocked
+                if (failure == null) {
+                    try {
+                        writer.write(frame);
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+                free.offer(frame);
+            }
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException();
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.company.conway;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Pipeline evolving an engine ahead of its display.
+ * <p>
+ *     A producer thread renders every generation of the engine into an immutable {@link Frame}, queues
+ *     it and steps the engine, at most {@code capacity} frames ahead of the display. The display takes
+ *     the frames at a fixed frame rate from its own thread, so a slow generation is absorbed by the
+ *     frames computed ahead and a slow display never holds the engine back for more than the queue.
+ *     When the display falls behind its schedule by whole frame periods, it drops as many queued frames
+ *     and goes on from the following one instead of showing every late frame in a burst.
+ * <p>
+ *     The engine is only touched by the producer thread once the pipeline is created.
+ */
+class FramePipeline implements AutoCloseable {
+    // Default number of frames computed ahead of the display
+    static final int DEFAULT_CAPACITY = 16;
+
+    final private BlockingQueue<Frame> frames;
+
+    // Time between two displayed frames, in nanoseconds
+    final private long period;
+
+    final private Thread producer;
+
+    final private AtomicLong dropped = new AtomicLong();
+
+    // The failure of the producer thread, rethrown to the display thread
+    private volatile Throwable failure;
+
+    /**
+     * Create the pipeline of an engine and start evolving it, from its current generation.
+     *
+     * @param engine The engine to evolve, not used by the caller any more
+     * @param renderer The rendering of the current generation of the engine as the text of a frame
+     * @param capacity The number of frames computed ahead of the display at most
+     * @param framesPerSecond The frame rate of the display
+     * @throws IllegalArgumentException if the capacity or the frame rate is not positive
+     */
+    FramePipeline(final LifeEngine engine, final Function<? super LifeEngine, String> renderer, final int capacity,
+                  final double framesPerSecond) {
+        if (capacity < 1 || !(framesPerSecond > 0)) {
+            throw new IllegalArgumentException();
+        }
+        this.frames = new ArrayBlockingQueue<Frame>(capacity);
+        this.period = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / framesPerSecond));
+
+        producer = new Thread(() -> produce(engine, renderer), "frame-producer");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    /**
+     * Create the pipeline of an engine rendered by its {@code toString()}, with the default capacity.
+     *
+     * @param engine The engine to evolve, not used by the caller any more
+     * @param framesPerSecond The frame rate of the display
+     * @throws IllegalArgumentException if the frame rate is not positive
+     */
+    FramePipeline(final LifeEngine engine, final double framesPerSecond) {
+        this(engine, LifeEngine::toString, DEFAULT_CAPACITY, framesPerSecond);
+    }
+
+    /**
+     * Show frames at the frame rate of the pipeline, from the calling thread.
+     *
+     * @param display The display of a frame
+     * @param count The number of frames to show, {@link Long#MAX_VALUE} to show them until interrupted
+     * @throws InterruptedException if the calling thread is interrupted
+     * @throws RuntimeException the failure of the engine or of the renderer on the producer thread
+     * @throws Error the error of the engine or of the renderer on the producer thread
+     */
+    void display(final Consumer<? super Frame> display, final long count) throws InterruptedException {
+        long deadline = System.nanoTime();
+        for (long shown = 0; shown < count; shown++) {
+            long late = System.nanoTime() - deadline;
+            while (late < 0) {
+                LockSupport.parkNanos(-late);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                late = System.nanoTime() - deadline;
+            }
+            // Skip the frames which should have been shown already
+            for (long behind = late / period; behind > 0 && frames.poll() != null; behind--) {
+                dropped.incrementAndGet();
+                deadline += period;
+            }
+            if (System.nanoTime() - deadline >= period) {
+                // Not enough frames to drop, the schedule restarts from now rather than catching up in a burst
+                deadline = System.nanoTime();
+            }
+
+            Frame frame = frames.poll();
+            if (frame == null) {
+                checkFailure();
+                // The engine is slower than the display, the schedule restarts from the frame
+                while ((frame = frames.poll(period, TimeUnit.NANOSECONDS)) == null) {
+                    checkFailure();
+                }
+                deadline = Math.max(deadline, System.nanoTime());
+            }
+            display.accept(frame);
+            deadline += period;
+        }
+    }
+
+    /**
+     * @return The number of frames computed but not shown because the display was late
+     */
+    long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Stop evolving the engine.
+     */
+    @Override
+    public void close() {
+        producer.interrupt();
+        try {
+            producer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkFailure() {
+        Throwable e = failure;
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+    }
+
+    /**
+     * Body of the producer thread, evolving the engine until the pipeline is closed.
+     */
+    private void produce(final LifeEngine engine, final Function<? super LifeEngine, String> renderer) {
+        try {
+            while (true) {
+                frames.put(new Frame(engine.getGeneration(), engine.getPopulation(), renderer.apply(engine)));
+                engine.step();
+            }
+        } catch (InterruptedException e) {
+            // Closed
+        } catch (RuntimeException | Error e) {
+            // Any failure, like running out of memory, must end the display rather than let it wait forever
+            failure = e;
+        }
+    }
+
+    /**
+     * A rendered generation of the engine.
+     */
+    static final class Frame {
+        final private long generation;
+
+        final private long population;
+
+        final private String text;
+
+        Frame(final long generation, final long population, final String text) {
+            this.generation = generation;
+            this.population = population;
+            this.text = text;
+        }
+
+        long getGeneration() {
+            return generation;
+        }
+
+        long getPopulation() {
+            return population;
+        }
+
+        String getText() {
+            return text;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+}
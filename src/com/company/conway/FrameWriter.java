@@ -0,0 +1,22 @@
+package com.company.conway;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Encoder of the frames captured by a {@link FrameExporter} into image files.
+ * <p>
+ *     A frame is a region of the board packed as words, row after row: every row starts on a new
+ *     word, and bit {@code b} of word {@code k} of a row is the cell in column {@code 64 * k + b} of
+ *     the region, {@code 1} for a live cell. The bits beyond the last column of a row are zero.
+ */
+interface FrameWriter extends Closeable {
+
+    /**
+     * Encode the next frame.
+     *
+     * @param frame the words of the frame, which are only read during the call
+     * @throws IOException if the frame can not be written
+     */
+    void write(long[] frame) throws IOException;
+}
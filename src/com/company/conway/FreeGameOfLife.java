@@ -0,0 +1,686 @@
+package com.company.conway;
+
+import com.company.util.LongHashSet;
+import com.company.util.LongIntHashMap;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * The grid of the system only covers the bounding rectangle of the seed and is extended outward
+ * when the live cells reach its border.
+ * <p>
+ *     The cells are stored in chunks of 64x64 cells, one {@code long} word per row of a chunk,
+ *     found by the {@link CellKey} of the chunk position on the infinite plane in primitive maps, so
+ *     a generation does not box any key. Only the chunks holding live cells exist, so extending the
+ *     grid only moves its bounds and memory depends on the occupied chunks rather than on the
+ *     bounding rectangle.
+ *     Each generation only evaluates the chunks next to a chunk changed in the last generation,
+ *     64 cells at a time with {@link BitKernel}, the other chunks are copied as they are. Extending
+ *     the grid only wakes up the chunks along the border it moved.
+ */
+class FreeGameOfLife implements LifeEngine {
+    // The width and height of a chunk in cells
+    private static final int CHUNK_SIZE = 64;
+
+    // Storing state of the current generation system, index + 1 of every chunk by the key of its position
+    private LongIntHashMap currentGeneration;
+
+    private Chunk[] currentChunks;
+
+    private int currentCount;
+
+    // Using to store temporarily the state of the next generation
+    // to avoid allocating new generation at each step time
+    private LongIntHashMap tempGeneration;
+
+    private Chunk[] tempChunks;
+
+    private int tempCount;
+
+    // Chunks of the last generations recycled for the next ones
+    private final Deque<Chunk> freeChunks;
+
+    // The chunks evaluated in a generation
+    private final LongHashSet candidateChunks;
+
+    // The position of the north west cell of the grid on the plane
+    private int top;
+
+    private int left;
+
+    private int horizontal;
+
+    private int vertical;
+
+    final private Rule rule;
+
+    private long generation;
+
+    // Receivers of the changed cells
+    final private CellListeners listeners = new CellListeners();
+
+    /**
+     * Initialize the current state of the system with a given seed.
+     *
+     * @param seedOfTheSystem seed of the system
+     * @throws UnsupportedOperationException throw {@link UnsupportedOperationException}
+     *                                       if the input {@code null} value for {@code seedOfTheSystem}
+     */
+    public FreeGameOfLife(final byte[][] seedOfTheSystem) {
+        this(Pattern.fromSeed(seedOfTheSystem));
+    }
+
+    /**
+     * Initialize the current state of the system with the live cells of a pattern.
+     *
+     * @param pattern the pattern of the seed, its grid being the first grid of the system
+     */
+    FreeGameOfLife(final Pattern pattern) {
+        vertical = pattern.getVertical();
+        horizontal = pattern.getHorizontal();
+        rule = pattern.getRule();
+
+        currentGeneration = new LongIntHashMap();
+        currentChunks = new Chunk[16];
+        tempGeneration = new LongIntHashMap();
+        tempChunks = new Chunk[16];
+        freeChunks = new ArrayDeque<Chunk>();
+        candidateChunks = new LongHashSet();
+        initSystemState(pattern);
+    }
+
+    /**
+     * Restore a system from the chunks of a checkpoint.
+     *
+     * @param top The x position on the plane of the north west cell of the grid
+     * @param left The y position on the plane of the north west cell of the grid
+     * @param vertical The number of rows of the grid
+     * @param horizontal The number of columns of the grid
+     * @param chunkWords The chunks of the current generation, as returned by {@link #getChunkWords()}
+     * @param generation The number of generations evolved since the seed
+     * @param rule The rule the system evolves with
+     * @throws IllegalArgumentException if the grid is empty or the chunks are truncated
+     */
+    FreeGameOfLife(final int top, final int left, final int vertical, final int horizontal,
+                   final long[] chunkWords, final long generation, final Rule rule) {
+        if (vertical < 1 || horizontal < 1 || chunkWords.length % (CHUNK_SIZE + 1) != 0) {
+            throw new IllegalArgumentException();
+        }
+        this.top = top;
+        this.left = left;
+        this.vertical = vertical;
+        this.horizontal = horizontal;
+        this.generation = generation;
+        this.rule = rule;
+
+        currentGeneration = new LongIntHashMap();
+        currentChunks = new Chunk[16];
+        tempGeneration = new LongIntHashMap();
+        tempChunks = new Chunk[16];
+        freeChunks = new ArrayDeque<Chunk>();
+        candidateChunks = new LongHashSet();
+        for (int i = 0; i < chunkWords.length; i += CHUNK_SIZE + 1) {
+            long key = chunkWords[i];
+            Chunk chunk = newChunk(CellKey.x(key), CellKey.y(key));
+            System.arraycopy(chunkWords, i + 1, chunk.rows, 0, CHUNK_SIZE);
+            // Which chunks changed in the last generation is not saved, so all of them are evaluated once
+            chunk.changed = true;
+            addChunk(chunk);
+        }
+    }
+
+    /**
+     * Transition to the next generation by applying the {@link Rule} of the system.
+     */
+    public void nextGeneration() {
+        // Only the chunks of the current generation and their neighbours can hold live cells
+        candidateChunks.clear();
+        for (int c = 0; c < currentCount; c++) {
+            Chunk chunk = currentChunks[c];
+            for (int i = -1; i <= 1; i++) {
+                for (int j = -1; j <= 1; j++) {
+                    candidateChunks.add(CellKey.pack(chunk.x + i, chunk.y + j));
+                }
+            }
+        }
+
+        for (int slot = candidateChunks.nextSlot(0); slot >= 0; slot = candidateChunks.nextSlot(slot + 1)) {
+            long key = candidateChunks.keyAt(slot);
+            Chunk next = evolveChunk(CellKey.x(key), CellKey.y(key));
+            if (next != null) {
+                if (tempCount == tempChunks.length) {
+                    tempChunks = Arrays.copyOf(tempChunks, tempCount * 2);
+                }
+                tempChunks[tempCount++] = next;
+                tempGeneration.put(key, tempCount);
+            }
+        }
+
+        // Swap the next generation to the current generation for the next step time
+        LongIntHashMap index = currentGeneration;
+        currentGeneration = tempGeneration;
+        tempGeneration = index;
+        Chunk[] chunks = currentChunks;
+        currentChunks = tempChunks;
+        tempChunks = chunks;
+        int count = currentCount;
+        currentCount = tempCount;
+        for (int c = 0; c < count; c++) {
+            freeChunks.push(tempChunks[c]);
+            tempChunks[c] = null;
+        }
+        tempCount = 0;
+        tempGeneration.clear();
+        generation++;
+
+        // After each step then extend the grid if need
+        extendGrid();
+    }
+
+    @Override
+    public void step() {
+        nextGeneration();
+    }
+
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return The chunks of the current generation, each one being the {@link CellKey} of
+     *          its position followed by its {@code 64} rows
+     */
+    long[] getChunkWords() {
+        long[] words = new long[currentCount * (CHUNK_SIZE + 1)];
+        int i = 0;
+        for (int c = 0; c < currentCount; c++) {
+            Chunk chunk = currentChunks[c];
+            words[i] = CellKey.pack(chunk.x, chunk.y);
+            System.arraycopy(chunk.rows, 0, words, i + 1, CHUNK_SIZE);
+            i += CHUNK_SIZE + 1;
+        }
+        return words;
+    }
+
+    int getTop() {
+        return top;
+    }
+
+    int getLeft() {
+        return left;
+    }
+
+    int getVertical() {
+        return vertical;
+    }
+
+    int getHorizontal() {
+        return horizontal;
+    }
+
+    @Override
+    public boolean isBounded() {
+        return false;
+    }
+
+    @Override
+    public long getPopulation() {
+        long population = 0;
+        for (int c = 0; c < currentCount; c++) {
+            for (long row : currentChunks[c].rows) {
+                population += Long.bitCount(row);
+            }
+        }
+        return population;
+    }
+
+    /**
+     * Check whether the given cell is alive in the current generation.
+     * <p>The cells are addressed on the plane, so the cells of the seed keep their position
+     * when the grid is extended to the north or to the west.
+     *
+     * @param x The x position of the cell
+     * @param y The y position of the cell
+     * @return {@code true} if the cell is alive; otherwise {@code false}
+     */
+    @Override
+    public boolean isAlive(final long x, final long y) {
+        if (x < top || x >= top + vertical || y < left || y >= left + horizontal) {
+            return false;
+        }
+        return get((int) x, (int) y);
+    }
+
+    @Override
+    public void addCellListener(final CellListener listener) {
+        listeners.add(listener);
+        for (int c = 0; c < currentCount; c++) {
+            Chunk chunk = currentChunks[c];
+            for (int r = 0; r < CHUNK_SIZE; r++) {
+                listener.wordChanged((long) chunk.x * CHUNK_SIZE + r, (long) chunk.y * CHUNK_SIZE, 0, chunk.rows[r]);
+            }
+        }
+    }
+
+    @Override
+    public void removeCellListener(final CellListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Compute the next generation of a chunk.
+     *
+     * @param x The x position of the chunk
+     * @param y The y position of the chunk
+     * @return The chunk of the next generation, or {@code null} if it is empty and did not change
+     */
+    private Chunk evolveChunk(final int x, final int y) {
+        Chunk chunk = getChunk(x, y);
+        boolean active = false;
+        for (int i = -1; i <= 1 && !active; i++) {
+            for (int j = -1; j <= 1 && !active; j++) {
+                Chunk neighbour = getChunk(x + i, y + j);
+                active = neighbour != null && neighbour.changed;
+            }
+        }
+
+        Chunk next = newChunk(x, y);
+        if (!active) {
+            // Nothing changed around the chunk in the last generation, so it is a still life
+            if (chunk == null || chunk.isEmpty()) {
+                freeChunks.push(next);
+                return null;
+            }
+            System.arraycopy(chunk.rows, 0, next.rows, 0, CHUNK_SIZE);
+            return next;
+        }
+
+        // Only the cells inside of the grid can be alive
+        int minRow = Math.max(0, top - x * CHUNK_SIZE);
+        int maxRow = Math.min(CHUNK_SIZE, top + vertical - x * CHUNK_SIZE);
+        long columns = columnMask(left - y * CHUNK_SIZE, left + horizontal - y * CHUNK_SIZE);
+
+        long[] north = rowsOf(getChunk(x - 1, y));
+        long[] northWest = rowsOf(getChunk(x - 1, y - 1));
+        long[] northEast = rowsOf(getChunk(x - 1, y + 1));
+        long[] west = rowsOf(getChunk(x, y - 1));
+        long[] centre = rowsOf(chunk);
+        long[] east = rowsOf(getChunk(x, y + 1));
+        long[] south = rowsOf(getChunk(x + 1, y));
+        long[] southWest = rowsOf(getChunk(x + 1, y - 1));
+        long[] southEast = rowsOf(getChunk(x + 1, y + 1));
+
+        boolean empty = true;
+        for (int r = minRow; r < maxRow; r++) {
+            long nw, n, ne, sw, s, se;
+            if (r == 0) {
+                nw = northWest[CHUNK_SIZE - 1];
+                n = north[CHUNK_SIZE - 1];
+                ne = northEast[CHUNK_SIZE - 1];
+            } else {
+                nw = west[r - 1];
+                n = centre[r - 1];
+                ne = east[r - 1];
+            }
+            if (r == CHUNK_SIZE - 1) {
+                sw = southWest[0];
+                s = south[0];
+                se = southEast[0];
+            } else {
+                sw = west[r + 1];
+                s = centre[r + 1];
+                se = east[r + 1];
+            }
+            long word = BitKernel.evolve(rule, nw, n, ne, west[r], centre[r], east[r], sw, s, se) & columns;
+            next.rows[r] = word;
+            if (word != centre[r]) {
+                next.changed = true;
+                if (!listeners.isEmpty()) {
+                    listeners.wordChanged((long) x * CHUNK_SIZE + r, (long) y * CHUNK_SIZE, centre[r], word);
+                }
+            }
+            empty &= word == 0;
+        }
+        // A chunk which became empty is kept for one generation so its neighbours are evaluated
+        if (empty && !next.changed) {
+            freeChunks.push(next);
+            return null;
+        }
+        return next;
+    }
+
+    /**
+     * @param from The first column of the chunk inside of the grid, may be outside of the chunk
+     * @param to The column after the last column of the chunk inside of the grid, may be outside of the chunk
+     * @return The mask of the columns of the chunk inside of the grid
+     */
+    private static long columnMask(final int from, final int to) {
+        int lo = Math.max(0, from);
+        int hi = Math.min(CHUNK_SIZE, to);
+        if (lo >= hi) {
+            return 0;
+        }
+        long mask = -1L << lo;
+        return hi == CHUNK_SIZE ? mask : mask & ((1L << hi) - 1);
+    }
+
+    /**
+     * @return The chunk of the current generation at the given chunk position, or {@code null} if it is empty
+     */
+    private Chunk getChunk(final int x, final int y) {
+        int index = currentGeneration.get(CellKey.pack(x, y)) - 1;
+        return index < 0 ? null : currentChunks[index];
+    }
+
+    /**
+     * Add a chunk to the current generation.
+     */
+    private void addChunk(final Chunk chunk) {
+        if (currentCount == currentChunks.length) {
+            currentChunks = Arrays.copyOf(currentChunks, currentCount * 2);
+        }
+        currentChunks[currentCount++] = chunk;
+        currentGeneration.put(CellKey.pack(chunk.x, chunk.y), currentCount);
+    }
+
+    private static long[] rowsOf(final Chunk chunk) {
+        return chunk == null ? Chunk.EMPTY_ROWS : chunk.rows;
+    }
+
+    /**
+     * Take a cleared chunk from the recycled ones or allocate it.
+     */
+    private Chunk newChunk(final int x, final int y) {
+        Chunk chunk = freeChunks.poll();
+        if (chunk == null) {
+            chunk = new Chunk();
+        } else {
+            Arrays.fill(chunk.rows, 0);
+        }
+        chunk.x = x;
+        chunk.y = y;
+        chunk.changed = false;
+        return chunk;
+    }
+
+    /**
+     * Check whether the given cell of the plane is alive in the current generation.
+     *
+     * @param x The x position of the cell
+     * @param y The y position of the cell
+     * @return {@code true} if the cell is alive; otherwise {@code false}
+     */
+    private boolean get(final int x, final int y) {
+        Chunk chunk = getChunk(x >> 6, y >> 6);
+        return chunk != null && (chunk.rows[x & (CHUNK_SIZE - 1)] & (1L << y)) != 0;
+    }
+
+    /**
+     * Set the current state of the system from given pattern.
+     *
+     * @param pattern pattern of the seed of the system
+     */
+    private void initSystemState(final Pattern pattern) {
+        for (int c = 0; c < pattern.size(); c++) {
+            int i = pattern.x(c);
+            int j = pattern.y(c);
+            Chunk chunk = getChunk(i >> 6, j >> 6);
+            if (chunk == null) {
+                chunk = newChunk(i >> 6, j >> 6);
+                addChunk(chunk);
+            }
+            chunk.rows[i & (CHUNK_SIZE - 1)] |= 1L << j;
+            chunk.changed = true;
+        }
+        // Extend the grid of the system if need
+        extendGrid();
+    }
+
+    /**
+     * Extend the grid after each time step of the system.
+     * <p>Only the cells of the old border can give birth to the cells the grid gains,
+     * so only the chunks along that border are marked as changed to be evaluated again.
+     */
+    private void extendGrid() {
+        if (shouldExtendEast()) {
+            touchColumn(left + horizontal - 1);
+            extendEast();
+        }
+
+        if (shouldExtendNorth()) {
+            touchRow(top);
+            extendNorth();
+        }
+
+        if (shouldExtendSouth()) {
+            touchRow(top + vertical - 1);
+            extendSouth();
+        }
+
+        if (shouldExtendWest()) {
+            touchColumn(left);
+            extendWest();
+        }
+    }
+
+    /**
+     * Mark the chunks holding a row of the grid as changed.
+     *
+     * @param x The x position of the row on the plane
+     */
+    private void touchRow(final int x) {
+        for (int y = left >> 6; y <= (left + horizontal - 1) >> 6; y++) {
+            Chunk chunk = getChunk(x >> 6, y);
+            if (chunk != null) {
+                chunk.changed = true;
+            }
+        }
+    }
+
+    /**
+     * Mark the chunks holding a column of the grid as changed.
+     *
+     * @param y The y position of the column on the plane
+     */
+    private void touchColumn(final int y) {
+        for (int x = top >> 6; x <= (top + vertical - 1) >> 6; x++) {
+            Chunk chunk = getChunk(x, y >> 6);
+            if (chunk != null) {
+                chunk.changed = true;
+            }
+        }
+    }
+
+    /**
+     * Check if the current grid need to extend outward to north or not.
+     * <p>If a cell can be born just outside of the north border of the grid,
+     * the the grid need to extend one to the north.
+     *
+     * @return {@code true} if need extend to the north; otherwise {@code false}
+     */
+    private boolean shouldExtendNorth() {
+        return hasBirthNextToRow(top);
+    }
+
+    /**
+     * Check if the current grid need to extend outward to south or not.
+     * <p>If a cell can be born just outside of the south border of the grid,
+     * the the grid need to extend one to the south.
+     *
+     * @return {@code true} if need extend to the south; otherwise {@code false}
+     */
+    private boolean shouldExtendSouth() {
+        return hasBirthNextToRow(top + vertical - 1);
+    }
+
+    /**
+     * Check if the current grid need to extend outward to west or not.
+     * <p>If a cell can be born just outside of the west border of the grid,
+     * the the grid need to extend one to the west.
+     *
+     * @return {@code true} if need extend to the west; otherwise {@code false}
+     */
+    private boolean shouldExtendWest() {
+        return hasBirthNextToColumn(left);
+    }
+
+    /**
+     * Check if the current grid need to extend outward to east or not.
+     * <p>If a cell can be born just outside of the east border of the grid,
+     * the the grid need to extend one to the east.
+     *
+     * @return {@code true} if need extend to the east; otherwise {@code false}
+     */
+    private boolean shouldExtendEast() {
+        return hasBirthNextToColumn(left + horizontal - 1);
+    }
+
+    /**
+     * Check if a cell can be born next to a row of the grid, on the outside of the grid,
+     * skipping the chunks without any live cell.
+     * <p>A cell outside of the grid only has the 3 cells of the row next to it as live neighbours,
+     * so a window of 3 adjacent cells of the row is slid along the row.
+     *
+     * @param x The x position of the row on the plane
+     * @return {@code true} if a cell can be born next to the row; otherwise {@code false}
+     */
+    private boolean hasBirthNextToRow(final int x) {
+        int window = 0;
+        for (int y = left; y < left + horizontal + 2; y++) {
+            if (y < left + horizontal && (y & (CHUNK_SIZE - 1)) == 0 && getChunk(x >> 6, y >> 6) == null) {
+                // Slide the last live cells out of the window, then jump to the last column of the empty chunk
+                if (isBirth((window << 1) & 7) || isBirth((window << 2) & 7)) {
+                    return true;
+                }
+                y = Math.min(y + CHUNK_SIZE, left + horizontal) - 1;
+                window = 0;
+            } else {
+                window = ((window << 1) | (y < left + horizontal && get(x, y) ? 1 : 0)) & 7;
+                if (isBirth(window)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if a cell can be born next to a column of the grid, on the outside of the grid,
+     * skipping the chunks without any live cell.
+     *
+     * @param y The y position of the column on the plane
+     * @return {@code true} if a cell can be born next to the column; otherwise {@code false}
+     */
+    private boolean hasBirthNextToColumn(final int y) {
+        int window = 0;
+        for (int x = top; x < top + vertical + 2; x++) {
+            if (x < top + vertical && (x & (CHUNK_SIZE - 1)) == 0 && getChunk(x >> 6, y >> 6) == null) {
+                // Slide the last live cells out of the window, then jump to the last row of the empty chunk
+                if (isBirth((window << 1) & 7) || isBirth((window << 2) & 7)) {
+                    return true;
+                }
+                x = Math.min(x + CHUNK_SIZE, top + vertical) - 1;
+                window = 0;
+            } else {
+                window = ((window << 1) | (x < top + vertical && get(x, y) ? 1 : 0)) & 7;
+                if (isBirth(window)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param window The states of 3 adjacent cells
+     * @return {@code true} if a dead cell with these live neighbours only is born
+     */
+    private boolean isBirth(final int window) {
+        return rule.isBirth(Integer.bitCount(window));
+    }
+
+    /**
+     * Extend the grid to the north.
+     */
+    private void extendNorth() {
+        top--;
+        vertical++;
+    }
+
+    /**
+     * Extend the grid to the south.
+     */
+    private void extendSouth() {
+        vertical++;
+    }
+
+    /**
+     * Extend the grid to the west.
+     */
+    private void extendWest() {
+        left--;
+        horizontal++;
+    }
+
+    /**
+     * Extend the grid to the east.
+     */
+    private  void extendEast() {
+        horizontal++;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < vertical; i++) {
+            for (int j = 0; j < horizontal; j++) {
+                if (get(top + i, left + j)) {
+                    // Present the live cell by black square character
+                    builder.append("◾");
+                } else {
+                    // Present the dead cell by white square character
+                    builder.append("◽");
+                }
+            }
+            builder.append("\n");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * A 64x64 square of cells, bit {@code j} of the row {@code i} is the cell
+     * {@code (64 * x + i, 64 * y + j)} of the plane.
+     */
+    private static final class Chunk {
+        // Rows of a chunk without any live cell
+        static final long[] EMPTY_ROWS = new long[CHUNK_SIZE];
+
+        final long[] rows = new long[CHUNK_SIZE];
+
+        // The position of the chunk on the plane
+        int x;
+
+        int y;
+
+        // Whether a cell of the chunk changed in the generation which computed it
+        boolean changed;
+
+        boolean isEmpty() {
+            for (long row : rows) {
+                if (row != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
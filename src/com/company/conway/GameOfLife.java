@@ -0,0 +1,384 @@
+package com.company.conway;
+
+import java.util.BitSet;
+
+/**
+ *
+ */
+class GameOfLife implements LifeEngine {
+    // Storing state of the current generation system
+    private BitSet currentGeneration;
+
+    // Using to store temporarily the state of the next generation
+    // to avoid allocating new generation at each step time
+    private BitSet tempGeneration;
+
+    final private int horizontal;
+
+    final private int vertical;
+
+    // Distance between two consecutive rows, the grid being surrounded by a halo of one cell
+    final private int stride;
+
+    final private Topology topology;
+
+    // Tiles which changed in the last generation, the other ones are skipped
+    final private TileTracker tiles;
+
+    final private Rule rule;
+
+    private long generation;
+
+    // Receivers of the changed cells
+    final private CellListeners listeners = new CellListeners();
+
+    // Publisher of the finished generations in the concurrent mode, or null
+    private volatile SnapshotPublisher publisher;
+
+    /**
+     * Initialize the current state of the system with a given seed.
+     *
+     * @param seedOfTheSystem   seed of the system
+     * @throws UnsupportedOperationException throw {@link UnsupportedOperationException}
+     *          if the input {@code null} value for {@code seedOfTheSystem}
+     */
+    public GameOfLife(final byte[][] seedOfTheSystem) {
+        this(Pattern.fromSeed(seedOfTheSystem));
+    }
+
+    /**
+     * Initialize the current state of the system with the live cells of a pattern.
+     *
+     * @param pattern the pattern of the seed, its grid being the grid of the system
+     * @throws IllegalArgumentException if the grid and its halo have more than {@code Integer.MAX_VALUE} cells
+     */
+    GameOfLife(final Pattern pattern) {
+        this(pattern, Topology.BOUNDED);
+    }
+
+    /**
+     * Initialize the current state of the system with the live cells of a pattern,
+     * on a grid whose borders are glued according to a topology.
+     *
+     * @param pattern the pattern of the seed, its grid being the grid of the system
+     * @param topology how the borders of the grid are glued together
+     * @throws IllegalArgumentException if the grid and its halo have more than {@code Integer.MAX_VALUE} cells
+     */
+    GameOfLife(final Pattern pattern, final Topology topology) {
+        this(pattern.getVertical(), pattern.getHorizontal(), topology, pattern.getRule());
+        setCurrentGeneration(pattern);
+    }
+
+    private GameOfLife(final int vertical, final int horizontal, final Topology topology, final Rule rule) {
+        if (vertical < 1 || horizontal < 1 || (vertical + 2L) * (horizontal + 2L) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException();
+        }
+        this.vertical = vertical;
+        this.horizontal = horizontal;
+        this.topology = topology;
+        this.rule = rule;
+        stride = horizontal + 2;
+
+        currentGeneration = new BitSet((vertical + 2) * stride);
+        tempGeneration = new BitSet((vertical + 2) * stride);
+        tiles = new TileTracker(vertical, horizontal, topology != Topology.BOUNDED);
+    }
+
+    /**
+     * Restore a system from the words of a checkpoint.
+     *
+     * @param vertical The number of rows of the grid
+     * @param horizontal The number of columns of the grid
+     * @param words The words of the current generation, as returned by {@link #getWords()}
+     * @param generation The number of generations evolved since the seed
+     * @param topology how the borders of the grid are glued together
+     * @param rule The rule the system evolves with
+     * @throws IllegalArgumentException if the grid is empty, has more than {@code Integer.MAX_VALUE} cells
+     *          with its halo or if a word holds cells outside of the grid
+     */
+    GameOfLife(final int vertical, final int horizontal, final long[] words, final long generation,
+               final Topology topology, final Rule rule) {
+        this(vertical, horizontal, topology, rule);
+        if ((long) words.length * 64 > (long) vertical * horizontal + 63) {
+            throw new IllegalArgumentException();
+        }
+        this.generation = generation;
+
+        BitSet cells = BitSet.valueOf(words);
+        if (cells.length() > (long) vertical * horizontal) {
+            // The padding bits of the last word would land in the halo
+            throw new IllegalArgumentException();
+        }
+        for (int i = cells.nextSetBit(0); i >= 0; i = cells.nextSetBit(i + 1)) {
+            currentGeneration.set(getIndex(i / horizontal, i % horizontal));
+        }
+    }
+
+    /**
+     * Transition to the next generation by applying the {@link Rule} of the system.
+     */
+    public void nextGeneration() {
+        if (topology != Topology.BOUNDED) {
+            refreshHalo(currentGeneration);
+        }
+
+        // At each step time, looping all tiles next to a change in the last generation to apply the rules.
+        // The temporary generation already holds the state of the skipped tiles
+        // since they did not change in the last generation.
+        for (int i = 0; i < tiles.getTileRows(); i++) {
+            for (int j = 0; j < tiles.getTileColumns(); j++) {
+                if (tiles.isActive(i, j) && evolveTile(i, j)) {
+                    tiles.markChanged(i, j);
+                }
+            }
+        }
+        tiles.nextGeneration();
+        if (topology != Topology.BOUNDED) {
+            // The halo of the temporary generation has to read as dead for isAlive and the population
+            clearHalo(currentGeneration);
+        }
+
+        // Swap the next generation to the current generation for the next step time
+        BitSet bs = currentGeneration;
+        currentGeneration = tempGeneration;
+        tempGeneration = bs;
+        generation++;
+        if (publisher != null) {
+            publish();
+        }
+    }
+
+    /**
+     * Switch to the concurrent mode, where every finished generation is published as an immutable
+     * snapshot that any thread can read while the next generations are computed.
+     * <p>
+     *     The current generation is published at once. In the concurrent mode {@link #toString()}
+     *     renders the latest snapshot and may be called from any thread; the other methods still
+     *     belong to the simulation thread.
+     *
+     * @return The publisher of the generations, to acquire them from the reader threads
+     */
+    SnapshotPublisher publishSnapshots() {
+        if (publisher == null) {
+            publisher = new SnapshotPublisher(vertical, horizontal);
+            publish();
+        }
+        return publisher;
+    }
+
+    /**
+     * Copy the current generation into a buffer of the publisher and publish it.
+     */
+    private void publish() {
+        long[] words = publisher.buffer();
+        long population = 0;
+        for (int i = currentGeneration.nextSetBit(0); i >= 0; i = currentGeneration.nextSetBit(i + 1)) {
+            int index = (i / stride - 1) * horizontal + i % stride - 1;
+            words[index >>> 6] |= 1L << index;
+            population++;
+        }
+        publisher.publish(generation, population, words);
+    }
+
+    @Override
+    public void step() {
+        nextGeneration();
+    }
+
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return The words of the current generation, bit {@code x * horizontal + y} being the cell {@code (x, y)}
+     */
+    long[] getWords() {
+        BitSet cells = new BitSet(vertical * horizontal);
+        for (int i = currentGeneration.nextSetBit(0); i >= 0; i = currentGeneration.nextSetBit(i + 1)) {
+            cells.set((i / stride - 1) * horizontal + i % stride - 1);
+        }
+        return cells.toLongArray();
+    }
+
+    Topology getTopology() {
+        return topology;
+    }
+
+    int getVertical() {
+        return vertical;
+    }
+
+    int getHorizontal() {
+        return horizontal;
+    }
+
+    @Override
+    public long getPopulation() {
+        return currentGeneration.cardinality();
+    }
+
+    @Override
+    public boolean isAlive(final long x, final long y) {
+        if (x < 0 || x >= vertical || y < 0 || y >= horizontal) {
+            return false;
+        }
+        return currentGeneration.get(getIndex((int) x, (int) y));
+    }
+
+    @Override
+    public void addCellListener(final CellListener listener) {
+        listeners.add(listener);
+        for (int i = currentGeneration.nextSetBit(0); i >= 0; i = currentGeneration.nextSetBit(i + 1)) {
+            listener.cellChanged(i / stride - 1, i % stride - 1, true);
+        }
+    }
+
+    @Override
+    public void removeCellListener(final CellListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Apply the rules to all cells of a tile.
+     *
+     * @param tileRow The row of the tile
+     * @param tileColumn The column of the tile
+     * @return {@code true} if at least one cell of the tile changed; otherwise {@code false}
+     */
+    private boolean evolveTile(final int tileRow, final int tileColumn) {
+        int minX = tileRow * TileTracker.TILE_SIZE;
+        int maxX = Math.min(vertical, minX + TileTracker.TILE_SIZE);
+        int minY = tileColumn * TileTracker.TILE_SIZE;
+        int maxY = Math.min(horizontal, minY + TileTracker.TILE_SIZE);
+
+        boolean changed = false;
+        for (int i = minX; i < maxX; i++) {
+            // Slide the neighbourhood along the row, only reading the column entering it
+            int neighbourhood = getColumn(i, minY - 1) << 1 | getColumn(i, minY) << 2;
+            for (int j = minY; j < maxY; j++) {
+                neighbourhood = (neighbourhood >>> 1) & 0b011011011 | getColumn(i, j + 1) << 2;
+                boolean alive = (neighbourhood & Rule.CENTRE) != 0;
+                // The rule table gives the next state of the cell from its whole neighbourhood
+                boolean nextAlive = rule.next(neighbourhood) != 0;
+                // The temporary generation still holds an older generation,
+                // so every cell of the tile has to be written explicitly
+                tempGeneration.set(getIndex(i, j), nextAlive);
+                if (nextAlive != alive) {
+                    changed = true;
+                    if (!listeners.isEmpty()) {
+                        listeners.cellChanged(i, j, nextAlive);
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Collect a column of 3 cells of a neighbourhood, the halo holding the cells outside of the grid.
+     *
+     * @param x The x position of the cell at the centre of the column
+     * @param y The y position of the column, from {@code -1} to {@code horizontal}
+     * @return The column, bits {@code 0}, {@code 3} and {@code 6} being the cells of the rows {@code x - 1}, {@code x}
+     *          and {@code x + 1}
+     */
+    private int getColumn(final int x, final int y) {
+        int index = getIndex(x, y);
+        int column = currentGeneration.get(index - stride) ? 1 : 0;
+        if (currentGeneration.get(index)) {
+            column |= 1 << 3;
+        }
+        if (currentGeneration.get(index + stride)) {
+            column |= 1 << 6;
+        }
+        return column;
+    }
+
+    /**
+     * Copy the borders of the grid into the halo around it, according to the topology.
+     *
+     * @param cells The generation to refresh
+     */
+    private void refreshHalo(final BitSet cells) {
+        // The halo rows first, then the halo columns of every row including the halo rows,
+        // so the corners of the halo get the cells diagonally across the glued borders
+        boolean mirrored = topology == Topology.KLEIN_BOTTLE;
+        for (int j = 0; j < horizontal; j++) {
+            int from = mirrored ? horizontal - 1 - j : j;
+            cells.set(getIndex(-1, j), cells.get(getIndex(vertical - 1, from)));
+            cells.set(getIndex(vertical, j), cells.get(getIndex(0, from)));
+        }
+        for (int i = -1; i <= vertical; i++) {
+            cells.set(getIndex(i, -1), cells.get(getIndex(i, horizontal - 1)));
+            cells.set(getIndex(i, horizontal), cells.get(getIndex(i, 0)));
+        }
+    }
+
+    /**
+     * Kill every cell of the halo around the grid.
+     *
+     * @param cells The generation to clear
+     */
+    private void clearHalo(final BitSet cells) {
+        cells.clear(getIndex(-1, -1), getIndex(0, -1));
+        cells.clear(getIndex(vertical, -1), getIndex(vertical + 1, -1));
+        for (int i = 0; i < vertical; i++) {
+            cells.clear(getIndex(i, -1));
+            cells.clear(getIndex(i, horizontal));
+        }
+    }
+
+    /**
+     * Calculate the index of the {@link BitSet} from input grid cell.
+     *
+     * @param x The x position of the cell, from {@code -1} to {@code vertical} to include the halo
+     * @param y The y position of the cell, from {@code -1} to {@code horizontal} to include the halo
+     * @return The index of the cell in the equivalent {@link BitSet}
+     */
+    private int getIndex(final int x, final int y) {
+        return (x + 1) * stride + y + 1;
+    }
+
+    /**
+     * Set the current state of the system from given pattern.
+     *
+     * @param pattern  pattern of the seed of the system
+     */
+    private void setCurrentGeneration(final Pattern pattern) {
+        for (int i = 0; i < pattern.size(); i++) {
+            currentGeneration.set(getIndex(pattern.x(i), pattern.y(i)));
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (publisher != null) {
+            // The grid being computed must not be read from another thread
+            try (GenerationSnapshot snapshot = publisher.acquire()) {
+                return snapshot.toString();
+            }
+        }
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < vertical; i++) {
+            for (int j = 0; j < horizontal; j++) {
+                if (currentGeneration.get(getIndex(i, j))) {
+                    // Present the live cell by black square character
+                    builder.append("◾");
+                } else {
+                    // Present the dead cell by white square character
+                    builder.append("◽");
+                }
+            }
+            builder.append("\n");
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,270 @@
+package com.company.conway;
+
+import java.util.Arrays;
+
+/**
+ * Bounded history of the recent generations of a region of an engine, for rewind and replay.
+ * <p>
+ *     The history listens to the changes of the engine with {@link RegionCells}, which keeps the
+ *     cells of the region packed as words and marks the words changed since the last record. Every
+ *     recorded generation is stored as the XOR of the words which changed since the previous one,
+ *     and every {@code keyframeInterval} generations as a keyframe holding all of its words, which
+ *     is the XOR against an empty region. Both are encoded the same way: for every non-zero word,
+ *     the distance to the previous one as a variable length integer, then a mask of the non-zero
+ *     bytes of the word followed by these bytes. A generation is rebuilt by XORing its keyframe
+ *     and the following deltas, in time proportional to the keyframe interval and to the changes,
+ *     not to the length of the history.
+ * <p>
+ *     Once {@code capacity} generations are kept, the oldest keyframe and its deltas are dropped together
+ *     before recording the next generation, so between {@code capacity - keyframeInterval + 1} and
+ *     {@code capacity} generations are kept.
+ * <p>
+ *     {@link #close()} stops listening to the engine; the kept generations can still be read.
+ */
+class GenerationHistory implements AutoCloseable {
+    final private LifeEngine engine;
+
+    final private RegionCells region;
+
+    final private int capacity;
+
+    final private int keyframeInterval;
+
+    // The cells of the region in the current generation, and in the last recorded one
+    final private long[] cells;
+
+    final private long[] recorded;
+
+    // Bit i marks the word i as changed since the last recorded generation
+    final private long[] dirtyMarks;
+
+    // Encoded generations, the generation firstGeneration + i being at index (head + i) % entries.length,
+    // a multiple of the keyframe interval so a keyframe and its deltas never wrap around
+    final private byte[][] entries;
+
+    private int head;
+
+    private int size;
+
+    private long firstGeneration;
+
+    private long bytes;
+
+    private boolean closed;
+
+    // Scratch buffer of the generation being encoded
+    private byte[] encoded = new byte[1024];
+
+    /**
+     * Create the history of a region of an engine, start listening to the changes of the engine
+     * and record the current generation.
+     *
+     * @param engine The engine to record
+     * @param top The x position of the north west cell of the region
+     * @param left The y position of the north west cell of the region
+     * @param vertical The number of rows of the region
+     * @param horizontal The number of columns of the region
+     * @param capacity The number of generations kept at most
+     * @param keyframeInterval The number of generations from a keyframe to the next one, at most {@code capacity}
+     * @throws IllegalArgumentException if the region is empty or too large, or a count is not positive,
+     *          or the keyframe interval is larger than the capacity
+     * @throws UnsupportedOperationException if the engine can not report its changes
+     */
+    GenerationHistory(final LifeEngine engine, final long top, final long left, final int vertical,
+                      final int horizontal, final int capacity, final int keyframeInterval) {
+        if (keyframeInterval < 1 || capacity < keyframeInterval
+                || (long) capacity + keyframeInterval > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException();
+        }
+        this.engine = engine;
+        this.region = new RegionCells(top, left, vertical, horizontal, true);
+        this.capacity = capacity;
+        this.keyframeInterval = keyframeInterval;
+        cells = region.getWords();
+        recorded = new long[cells.length];
+        dirtyMarks = region.getChangeMarks();
+        entries = new byte[(capacity + keyframeInterval - 1) / keyframeInterval * keyframeInterval][];
+
+        engine.addCellListener(region);
+        firstGeneration = engine.getGeneration();
+        record();
+    }
+
+    /**
+     * Stop listening to the engine, which then no longer updates the region of the history.
+     */
+    @Override
+    public void close() {
+        engine.removeCellListener(region);
+        closed = true;
+    }
+
+    /**
+     * Record the current generation of the engine, from the thread stepping the engine.
+     *
+     * @throws IllegalStateException if the history is closed, or the engine is not at the generation following
+     *          the last recorded one
+     */
+    void record() {
+        if (closed) {
+            throw new IllegalStateException("The history is closed");
+        }
+        if (size > 0 && engine.getGeneration() != getLastGeneration() + 1) {
+            throw new IllegalStateException("Generation " + engine.getGeneration()
+                    + " does not follow the recorded generation " + getLastGeneration());
+        }
+        if (size == capacity) {
+            // Drop the oldest keyframe with its deltas
+            for (int i = 0; i < keyframeInterval; i++) {
+                bytes -= entries[(head + i) % entries.length].length;
+                entries[(head + i) % entries.length] = null;
+            }
+            head = (head + keyframeInterval) % entries.length;
+            size -= keyframeInterval;
+            firstGeneration += keyframeInterval;
+        }
+
+        int length = 0;
+        boolean keyframe = size % keyframeInterval == 0;
+        if (keyframe) {
+            int previous = -1;
+            for (int i = 0; i < cells.length; i++) {
+                if (cells[i] != 0) {
+                    length = encode(length, i - previous, cells[i]);
+                    previous = i;
+                }
+            }
+        }
+        // The marks are scanned in order, so the changed words need no sorting
+        int previous = -1;
+        for (int m = 0; m < dirtyMarks.length; m++) {
+            long marks = dirtyMarks[m];
+            dirtyMarks[m] = 0;
+            while (marks != 0) {
+                int i = (m << 6) + Long.numberOfTrailingZeros(marks);
+                marks &= marks - 1;
+                long delta = cells[i] ^ recorded[i];
+                if (delta != 0 && !keyframe) {
+                    length = encode(length, i - previous, delta);
+                    previous = i;
+                }
+                recorded[i] = cells[i];
+            }
+        }
+
+        byte[] entry = Arrays.copyOf(encoded, length);
+        entries[(head + size) % entries.length] = entry;
+        size++;
+        bytes += entry.length;
+    }
+
+    /**
+     * @return The oldest generation kept
+     */
+    long getFirstGeneration() {
+        return firstGeneration;
+    }
+
+    /**
+     * @return The last recorded generation
+     */
+    long getLastGeneration() {
+        return firstGeneration + size - 1;
+    }
+
+    /**
+     * @return The number of bytes of the encoded generations
+     */
+    long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Rebuild a recorded generation.
+     *
+     * @param generation The generation, from {@link #getFirstGeneration()} to {@link #getLastGeneration()}
+     * @param words The words receiving the cells of the region, row after row: every row starts on a new
+     *              word, and bit {@code b} of word {@code k} of a row is the cell in column {@code 64 * k + b}
+     * @throws IllegalArgumentException if the generation is not kept, or the words do not match the region
+     */
+    void get(final long generation, final long[] words) {
+        if (generation < firstGeneration || generation > getLastGeneration() || words.length != cells.length) {
+            throw new IllegalArgumentException();
+        }
+        int offset = (int) (generation - firstGeneration);
+        Arrays.fill(words, 0);
+        for (int i = offset - offset % keyframeInterval; i <= offset; i++) {
+            apply(entries[(head + i) % entries.length], words);
+        }
+    }
+
+    /**
+     * Rebuild a recorded generation.
+     *
+     * @param generation The generation, from {@link #getFirstGeneration()} to {@link #getLastGeneration()}
+     * @return The words of the cells of the region, as filled by {@link #get(long, long[])}
+     * @throws IllegalArgumentException if the generation is not kept
+     */
+    long[] get(final long generation) {
+        long[] words = new long[cells.length];
+        get(generation, words);
+        return words;
+    }
+
+    /**
+     * Append a word to the generation being encoded.
+     *
+     * @param length The number of bytes encoded so far
+     * @param gap The distance from the previous word, the first word being at {@code gap - 1}
+     * @param word The non-zero word
+     * @return The number of bytes encoded with the word
+     */
+    private int encode(int length, int gap, final long word) {
+        if (length + 5 + 9 > encoded.length) {
+            encoded = Arrays.copyOf(encoded, encoded.length * 2);
+        }
+        while ((gap & ~0x7F) != 0) {
+            encoded[length++] = (byte) ((gap & 0x7F) | 0x80);
+            gap >>>= 7;
+        }
+        encoded[length++] = (byte) gap;
+        int maskIndex = length++;
+        int mask = 0;
+        for (int b = 0; b < 8; b++) {
+            byte value = (byte) (word >>> (b << 3));
+            if (value != 0) {
+                mask |= 1 << b;
+                encoded[length++] = value;
+            }
+        }
+        encoded[maskIndex] = (byte) mask;
+        return length;
+    }
+
+    /**
+     * XOR an encoded generation into words.
+     */
+    private static void apply(final byte[] entry, final long[] words) {
+        int index = -1;
+        int position = 0;
+        while (position < entry.length) {
+            int gap = 0;
+            int shift = 0;
+            byte value;
+            do {
+                value = entry[position++];
+                gap |= (value & 0x7F) << shift;
+                shift += 7;
+            } while (value < 0);
+            index += gap;
+            int mask = entry[position++] & 0xFF;
+            long word = 0;
+            for (int b = 0; b < 8; b++) {
+                if ((mask & (1 << b)) != 0) {
+                    word |= (entry[position++] & 0xFFL) << (b << 3);
+                }
+            }
+            words[index] ^= word;
+        }
+    }
+}
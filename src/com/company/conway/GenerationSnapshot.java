@@ -0,0 +1,124 @@
+package com.company.conway;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Immutable copy of a complete generation, published by a {@link SnapshotPublisher}.
+ * <p>
+ *     The cells are stored as dense words, bit {@code x * horizontal + y} being the cell {@code (x, y)}.
+ *     The words are recycled into a later snapshot once nobody holds this one anymore, so a reader
+ *     must only read a snapshot between {@link SnapshotPublisher#acquire()} and {@link #close()}.
+ */
+final class GenerationSnapshot implements AutoCloseable {
+    private static final AtomicIntegerFieldUpdater<GenerationSnapshot> REFERENCES =
+            AtomicIntegerFieldUpdater.newUpdater(GenerationSnapshot.class, "references");
+
+    final private SnapshotPublisher publisher;
+
+    final private long generation;
+
+    final private long population;
+
+    final private int vertical;
+
+    final private int horizontal;
+
+    final private long[] words;
+
+    // Number of holders of the snapshot, the publisher included while it is the latest one;
+    // once it drops to 0 the words are recycled and the snapshot can not be acquired anymore
+    private volatile int references = 1;
+
+    GenerationSnapshot(final SnapshotPublisher publisher, final long generation, final long population,
+                       final int vertical, final int horizontal, final long[] words) {
+        this.publisher = publisher;
+        this.generation = generation;
+        this.population = population;
+        this.vertical = vertical;
+        this.horizontal = horizontal;
+        this.words = words;
+    }
+
+    /**
+     * Take one more reference on the snapshot, unless it was already recycled.
+     *
+     * @return {@code true} if the reference was taken
+     */
+    boolean retain() {
+        int count;
+        do {
+            count = references;
+            if (count == 0) {
+                return false;
+            }
+        } while (!REFERENCES.compareAndSet(this, count, count + 1));
+        return true;
+    }
+
+    /**
+     * Release a reference on the snapshot, recycling its words when it was the last one.
+     */
+    @Override
+    public void close() {
+        if (REFERENCES.decrementAndGet(this) == 0) {
+            publisher.recycle(words);
+        }
+    }
+
+    /**
+     * @return The number of generations evolved since the seed
+     */
+    long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return The number of live cells
+     */
+    long getPopulation() {
+        return population;
+    }
+
+    int getVertical() {
+        return vertical;
+    }
+
+    int getHorizontal() {
+        return horizontal;
+    }
+
+    /**
+     * Check whether the given cell is alive in the snapshot.
+     *
+     * @param x The x position of the cell
+     * @param y The y position of the cell
+     * @return {@code true} if the cell is alive; otherwise {@code false}
+     */
+    boolean isAlive(final long x, final long y) {
+        if (x < 0 || x >= vertical || y < 0 || y >= horizontal) {
+            return false;
+        }
+        long index = x * horizontal + y;
+        return (words[(int) (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < vertical; i++) {
+            for (int j = 0; j < horizontal; j++) {
+                if (isAlive(i, j)) {
+                    // Present the live cell by black square character
+                    builder.append("◾");
+                } else {
+                    // Present the dead cell by white square character
+                    builder.append("◽");
+                }
+            }
+            builder.append("\n");
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,201 @@
+package com.company.conway;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writer of the frames as a looping animated GIF file.
+ * <p>
+ *     The image has a white and black palette and every frame is compressed with LZW. With only two
+ *     colours the string table is a plain array indexed by the code of the prefix and the next pixel,
+ *     so the compression costs a few array accesses per cell and allocates nothing. The file is written
+ *     through a buffered channel, in sub-blocks of 255 bytes as the format requires.
+ */
+final class GifFrameWriter implements FrameWriter {
+    // Default delay between two frames, in hundredths of a second
+    static final int DEFAULT_DELAY = 5;
+
+    // Smallest code size allowed by the format, for the two colours
+    private static final int MINIMUM_CODE_SIZE = 2;
+
+    private static final int CLEAR = 1 << MINIMUM_CODE_SIZE;
+
+    private static final int END = CLEAR + 1;
+
+    private static final int MAXIMUM_CODES = 4096;
+
+    final private FileChannel channel;
+
+    final private int vertical;
+
+    final private int horizontal;
+
+    final private int wordsPerRow;
+
+    final private int delay;
+
+    final private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+    // Code of the string made of the string of code c followed by pixel p at index 2 * c + p, 0 if none
+    final private int[] table = new int[2 * MAXIMUM_CODES];
+
+    // The sub-block being filled, its length byte first
+    final private byte[] block = new byte[256];
+
+    private int blockLength;
+
+    // Bits not written to the sub-block yet, the oldest in the low bits
+    private long bits;
+
+    private int bitCount;
+
+    /**
+     * Create an animated GIF file, replacing an existing one.
+     *
+     * @param path the file
+     * @param vertical the number of rows of the frames
+     * @param horizontal the number of columns of the frames
+     * @param delay the delay between two frames, in hundredths of a second
+     * @throws IOException if the file can not be written
+     * @throws IllegalArgumentException if the frames are empty or larger than 65535 cells on a side
+     */
+    GifFrameWriter(final Path path, final int vertical, final int horizontal, final int delay) throws IOException {
+        if (vertical < 1 || horizontal < 1 || vertical > 0xFFFF || horizontal > 0xFFFF || delay < 0 || delay > 0xFFFF) {
+            throw new IllegalArgumentException();
+        }
+        this.vertical = vertical;
+        this.horizontal = horizontal;
+        this.wordsPerRow = (horizontal + 63) >>> 6;
+        this.delay = delay;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        buffer.put("GIF89a".getBytes(StandardCharsets.US_ASCII));
+        // Global colour table of 2 colours, dead cells in white and live cells in black
+        buffer.putShort((short) horizontal).putShort((short) vertical).put((byte) 0x80).put((byte) 0).put((byte) 0);
+        buffer.put((byte) 0xFF).put((byte) 0xFF).put((byte) 0xFF).put((byte) 0).put((byte) 0).put((byte) 0);
+        // Loop forever
+        buffer.put((byte) 0x21).put((byte) 0xFF).put((byte) 11).put("NETSCAPE2.0".getBytes(StandardCharsets.US_ASCII))
+                .put((byte) 3).put((byte) 1).putShort((short) 0).put((byte) 0);
+    }
+
+    @Override
+    public void write(final long[] frame) throws IOException {
+        ensure(32);
+        // Graphic control extension with the delay, then the image descriptor covering the whole screen
+        buffer.put((byte) 0x21).put((byte) 0xF9).put((byte) 4).put((byte) 0).putShort((short) delay)
+                .put((byte) 0).put((byte) 0);
+        buffer.put((byte) 0x2C).putShort((short) 0).putShort((short) 0)
+                .putShort((short) horizontal).putShort((short) vertical).put((byte) 0);
+        buffer.put((byte) MINIMUM_CODE_SIZE);
+
+        int codeSize = MINIMUM_CODE_SIZE + 1;
+        int next = END + 1;
+        Arrays.fill(table, 0);
+        emit(CLEAR, codeSize);
+        int prefix = -1;
+        for (int i = 0; i < vertical; i++) {
+            int row = i * wordsPerRow;
+            for (int j = 0; j < horizontal; j++) {
+                int pixel = (int) (frame[row + (j >>> 6)] >>> j) & 1;
+                if (prefix < 0) {
+                    prefix = pixel;
+                    continue;
+                }
+                int string = table[2 * prefix + pixel];
+                if (string != 0) {
+                    prefix = string;
+                    continue;
+                }
+                emit(prefix, codeSize);
+                if (next < MAXIMUM_CODES) {
+                    table[2 * prefix + pixel] = next++;
+                    // The decoder adds the same code one step later, and widens its codes once it is full
+                    if (next > 1 << codeSize && codeSize < 12) {
+                        codeSize++;
+                    }
+                } else {
+                    emit(CLEAR, codeSize);
+                    Arrays.fill(table, 0);
+                    codeSize = MINIMUM_CODE_SIZE + 1;
+                    next = END + 1;
+                }
+                prefix = pixel;
+            }
+        }
+        emit(prefix, codeSize);
+        emit(END, codeSize);
+        if (bitCount > 0) {
+            append((byte) bits);
+            bits = 0;
+            bitCount = 0;
+        }
+        flushBlock();
+        ensure(1);
+        // Block terminator
+        buffer.put((byte) 0);
+    }
+
+    /**
+     * Append a code of the given size to the data sub-blocks.
+     */
+    private void emit(final int code, final int size) throws IOException {
+        bits |= (long) code << bitCount;
+        bitCount += size;
+        while (bitCount >= 8) {
+            append((byte) bits);
+            bits >>>= 8;
+            bitCount -= 8;
+        }
+    }
+
+    private void append(final byte value) throws IOException {
+        block[++blockLength] = value;
+        if (blockLength == 255) {
+            flushBlock();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockLength > 0) {
+            block[0] = (byte) blockLength;
+            ensure(blockLength + 1);
+            buffer.put(block, 0, blockLength + 1);
+            blockLength = 0;
+        }
+    }
+
+    private void ensure(final int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Write the trailer of the file and close it.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            ensure(1);
+            buffer.put((byte) 0x3B);
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
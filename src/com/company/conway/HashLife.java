@@ -0,0 +1,596 @@
+package com.company.conway;
+
+/**
+ * HashLife engine of the Conway's Game Of Life, or of another {@link Rule}, on an infinite grid.
+ * <p>
+ *     The universe is stored as a quadtree whose nodes are canonicalized in a hash table,
+ *     so identical regions of the grid, in space or in time, share a single node.
+ *     Each node of level {@code k} memoizes its centre advanced by {@code 2^(k-2)} generations,
+ *     its natural speed, which stays valid whatever the steps asked for later and lets
+ *     {@link #advance(long)} jump over billions of generations of periodic patterns by combining
+ *     a few cached results. A smaller step is computed from the natural steps of smaller nodes,
+ *     its result being memoized apart for the last step size asked of every node.
+ * <p>
+ *     The canonical table is bounded: as soon as a new node would make it hold more than the
+ *     configured number of nodes, even in the middle of a step, everything which is not reachable
+ *     from the current universe is evicted together with all the memoized results. The nodes of the
+ *     step in progress live on and are only no longer shared. A step which needs more nodes than the
+ *     bound gets twice as many after every eviction until it completes, rather than losing its work at
+ *     every node; the table is brought back under the bound once the step is done.
+ */
+class HashLife implements LifeEngine {
+    // The default maximum number of canonical nodes before the cache is evicted
+    private static final int DEFAULT_MAXIMUM_NODES = 1 << 22;
+
+    // The smallest level of the root, a 8x8 universe
+    private static final int MINIMUM_ROOT_LEVEL = 3;
+
+    // The two canonical leaves
+    private static final Node DEAD = new Node(0);
+    private static final Node ALIVE = new Node(1);
+
+    // Canonical nodes hashed by their four children
+    private Node[] table;
+
+    // The number of nodes in the canonical table
+    private int size;
+
+    final private int maxNodes;
+
+    // The number of nodes in the canonical table which triggers an eviction, raised during a step needing more
+    private int limit;
+
+    final private Rule rule;
+
+    // Canonical empty nodes indexed by level
+    private Node[] emptyNodes;
+
+    // Storing state of the current generation system, centered on the origin
+    private Node root;
+
+    private long generation;
+
+    private int horizontal;
+
+    private int vertical;
+
+    /**
+     * Initialize the current state of the system with a given seed.
+     *
+     * @param seedOfTheSystem seed of the system
+     * @throws UnsupportedOperationException throw {@link UnsupportedOperationException}
+     * if the input {@code null} value for {@code seedOfTheSystem}
+     */
+    public HashLife(final byte[][] seedOfTheSystem) {
+        this(seedOfTheSystem, DEFAULT_MAXIMUM_NODES);
+    }
+
+    /**
+     * Initialize the current state of the system with a given seed
+     * and a bounded number of canonical nodes.
+     *
+     * @param seedOfTheSystem seed of the system
+     * @param maxNodes the number of canonical nodes which triggers an eviction of the cache
+     * @throws UnsupportedOperationException throw {@link UnsupportedOperationException}
+     * if the input {@code null} value for {@code seedOfTheSystem}
+     * @throws IllegalArgumentException if {@code maxNodes} is less than 1
+     */
+    public HashLife(final byte[][] seedOfTheSystem, final int maxNodes) {
+        this(Pattern.fromSeed(seedOfTheSystem), maxNodes);
+    }
+
+    /**
+     * Initialize the current state of the system with the live cells of a pattern.
+     *
+     * @param pattern the pattern of the seed
+     */
+    HashLife(final Pattern pattern) {
+        this(pattern, DEFAULT_MAXIMUM_NODES);
+    }
+
+    /**
+     * Initialize the current state of the system with the live cells of a pattern
+     * and the maximum number of canonical nodes.
+     *
+     * @param pattern the pattern of the seed
+     * @param maxNodes the number of nodes above which the cache is evicted
+     * @throws IllegalArgumentException if {@code maxNodes} is less than 1
+     */
+    HashLife(final Pattern pattern, final int maxNodes) {
+        if (maxNodes < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.maxNodes = maxNodes;
+        this.limit = maxNodes;
+        this.rule = pattern.getRule();
+
+        table = new Node[1 << 10];
+        emptyNodes = new Node[64];
+        emptyNodes[0] = DEAD;
+        initSystemState(pattern);
+    }
+
+    /**
+     * Transition to the next generation by applying the rule of the system.
+     */
+    public void nextGeneration() {
+        advance(1);
+    }
+
+    @Override
+    public void step() {
+        nextGeneration();
+    }
+
+    /**
+     * Advance the system by the given number of generations.
+     * <p>
+     *     The number of generations is decomposed into powers of two and the universe
+     *     jumps by each of them in a single memoized step.
+     *
+     * @param generations the number of generations to advance
+     * @throws IllegalArgumentException if {@code generations} is negative
+     */
+    @Override
+    public void advance(long generations) {
+        if (generations < 0) {
+            throw new IllegalArgumentException();
+        }
+        for (int bit = 0; generations != 0; bit++, generations >>>= 1) {
+            if ((generations & 1) != 0) {
+                step(bit);
+            }
+        }
+    }
+
+    /**
+     * Check whether the given cell is alive in the current generation.
+     *
+     * @param x The x position of the cell
+     * @param y The y position of the cell
+     * @return {@code true} if the cell is alive; otherwise {@code false}
+     */
+    @Override
+    public boolean isAlive(long x, long y) {
+        Node node = root;
+        long half = 1L << (node.level - 1);
+        if (x < -half || x >= half || y < -half || y >= half) {
+            return false;
+        }
+        // Descend with the coordinates relative to the centre of the current node
+        while (node.level > 0) {
+            if (node.population == 0) {
+                return false;
+            }
+            // Offset of the centre of the children, irrelevant for the leaves
+            long quarter = node.level > 1 ? 1L << (node.level - 2) : 0;
+            if (x < 0) {
+                node = y < 0 ? node.nw : node.ne;
+                x += quarter;
+            } else {
+                node = y < 0 ? node.sw : node.se;
+                x -= quarter;
+            }
+            y += y < 0 ? quarter : -quarter;
+        }
+        return node == ALIVE;
+    }
+
+    @Override
+    public boolean isBounded() {
+        return false;
+    }
+
+    @Override
+    public long getPopulation() {
+        return root.population;
+    }
+
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * HashLife does not visit the cells it evolves, so it can not report their changes.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addCellListener(final CellListener listener) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void removeCellListener(final CellListener listener) {
+    }
+
+    /**
+     * Advance the universe by {@code 2^log} generations.
+     *
+     * @param log the log2 of the number of generations
+     */
+    private void step(final int log) {
+        // Pad the universe so nothing can escape the centre returned by the step
+        while (root.level < log + MINIMUM_ROOT_LEVEL
+                || centre(centre(root)).population != root.population) {
+            root = expand(root);
+        }
+        root = advance(root, log);
+        generation += 1L << log;
+
+        if (size > maxNodes) {
+            evict();
+        } else {
+            limit = maxNodes;
+        }
+    }
+
+    /**
+     * Compute the centre of the node advanced by {@code 2^log} generations.
+     *
+     * @param node a node of level 2 or more
+     * @param log the log2 of the number of generations, at most {@code level - 2}
+     * @return The canonical node of {@code level - 1} at the centre of {@code node}
+     */
+    private Node advance(final Node node, final int log) {
+        if (log == node.level - 2) {
+            return evolve(node);
+        }
+        if (node.steppedLog == log) {
+            return node.stepped;
+        }
+        // The centres of the nine overlapping sub-nodes, not advanced, tile the centre of the node
+        Node c00 = centre(node.nw);
+        Node c01 = centre(join(node.nw.ne, node.ne.nw, node.nw.se, node.ne.sw));
+        Node c02 = centre(node.ne);
+        Node c10 = centre(join(node.nw.sw, node.nw.se, node.sw.nw, node.sw.ne));
+        Node c11 = centre(join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw));
+        Node c12 = centre(join(node.ne.sw, node.ne.se, node.se.nw, node.se.ne));
+        Node c20 = centre(node.sw);
+        Node c21 = centre(join(node.sw.ne, node.se.nw, node.sw.se, node.se.sw));
+        Node c22 = centre(node.se);
+
+        // Each quadrant of the result is the centre of a half size node advanced by the whole step
+        Node result = join(
+                advance(join(c00, c01, c10, c11), log),
+                advance(join(c01, c02, c11, c12), log),
+                advance(join(c10, c11, c20, c21), log),
+                advance(join(c11, c12, c21, c22), log));
+        node.stepped = result;
+        node.steppedLog = log;
+        return result;
+    }
+
+    /**
+     * Compute the centre of the node advanced by {@code 2^(level - 2)} generations, its natural speed.
+     *
+     * @param node a node of level 2 or more
+     * @return The canonical node of {@code level - 1} at the centre of {@code node}
+     */
+    private Node evolve(final Node node) {
+        if (node.result != null) {
+            return node.result;
+        }
+
+        Node result;
+        if (node.level == 2) {
+            result = evolveBase(node);
+        } else {
+            // Nine overlapping sub-nodes of half size covering the node
+            Node n00 = node.nw;
+            Node n01 = join(node.nw.ne, node.ne.nw, node.nw.se, node.ne.sw);
+            Node n02 = node.ne;
+            Node n10 = join(node.nw.sw, node.nw.se, node.sw.nw, node.sw.ne);
+            Node n11 = join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+            Node n12 = join(node.ne.sw, node.ne.se, node.se.nw, node.se.ne);
+            Node n20 = node.sw;
+            Node n21 = join(node.sw.ne, node.se.nw, node.sw.se, node.se.sw);
+            Node n22 = node.se;
+
+            // A first round of steps on the sub-nodes, then a second round on the four quadrants
+            Node r00 = evolve(n00), r01 = evolve(n01), r02 = evolve(n02);
+            Node r10 = evolve(n10), r11 = evolve(n11), r12 = evolve(n12);
+            Node r20 = evolve(n20), r21 = evolve(n21), r22 = evolve(n22);
+
+            result = join(
+                    evolve(join(r00, r01, r10, r11)),
+                    evolve(join(r01, r02, r11, r12)),
+                    evolve(join(r10, r11, r20, r21)),
+                    evolve(join(r11, r12, r21, r22)));
+        }
+        node.result = result;
+        return result;
+    }
+
+    /**
+     * Compute the 2x2 centre of a 4x4 node after one generation.
+     *
+     * @param node a node of level 2
+     * @return The canonical node of level 1
+     */
+    private Node evolveBase(final Node node) {
+        // Row major 4x4 bit mask, bit (4 * row + column)
+        int cells = 0;
+        Node[] quadrants = {node.nw, node.ne, node.sw, node.se};
+        for (int q = 0; q < 4; q++) {
+            Node quadrant = quadrants[q];
+            int shift = ((q >> 1) * 8) + ((q & 1) * 2);
+            if (quadrant.nw == ALIVE) cells |= 1 << shift;
+            if (quadrant.ne == ALIVE) cells |= 1 << (shift + 1);
+            if (quadrant.sw == ALIVE) cells |= 1 << (shift + 4);
+            if (quadrant.se == ALIVE) cells |= 1 << (shift + 5);
+        }
+        return join(nextCell(cells, 1, 1), nextCell(cells, 1, 2), nextCell(cells, 2, 1), nextCell(cells, 2, 2));
+    }
+
+    /**
+     * Apply the rule to an inner cell of a 4x4 bit mask.
+     *
+     * @return The canonical leaf of the next state of the cell
+     */
+    private Node nextCell(final int cells, final int x, final int y) {
+        // The 3x3 neighbourhood of the cell, three bits of each row of the mask
+        int neighbourhood = ((cells >>> (4 * (x - 1) + y - 1)) & 7)
+                | (((cells >>> (4 * x + y - 1)) & 7) << 3)
+                | (((cells >>> (4 * (x + 1) + y - 1)) & 7) << 6);
+        return rule.next(neighbourhood) != 0 ? ALIVE : DEAD;
+    }
+
+    /**
+     * @param node a node of level 2 or more
+     * @return The canonical node of {@code level - 1} at the centre of {@code node}
+     */
+    private Node centre(final Node node) {
+        return join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+    }
+
+    /**
+     * Double the size of the node keeping it at the centre of an empty border.
+     *
+     * @param node the node to expand
+     * @return The canonical node of {@code level + 1}
+     */
+    private Node expand(final Node node) {
+        Node border = empty(node.level - 1);
+        return join(
+                join(border, border, border, node.nw),
+                join(border, border, node.ne, border),
+                join(border, node.sw, border, border),
+                join(node.se, border, border, border));
+    }
+
+    /**
+     * @param level the level of the node
+     * @return The canonical node without any live cell at the given level
+     */
+    private Node empty(final int level) {
+        Node node = emptyNodes[level];
+        if (node == null) {
+            Node child = empty(level - 1);
+            node = join(child, child, child, child);
+            emptyNodes[level] = node;
+        }
+        return node;
+    }
+
+    /**
+     * Find or create the canonical node with the given children.
+     *
+     * @return The canonical node one level above its children
+     */
+    private Node join(final Node nw, final Node ne, final Node sw, final Node se) {
+        int hash = hash(nw, ne, sw, se);
+        int bucket = hash & (table.length - 1);
+        for (Node node = table[bucket]; node != null; node = node.next) {
+            if (node.nw == nw && node.ne == ne && node.sw == sw && node.se == se) {
+                return node;
+            }
+        }
+
+        if (size >= limit) {
+            // Make room in the middle of the step, which needs twice as many nodes before the next eviction
+            int grown = limit < Integer.MAX_VALUE >>> 1 ? limit << 1 : Integer.MAX_VALUE;
+            evict();
+            limit = Math.max(limit, grown);
+            // The node may now be part of the kept universe
+            return join(nw, ne, sw, se);
+        }
+        Node node = new Node(nw, ne, sw, se, hash);
+        node.next = table[bucket];
+        table[bucket] = node;
+        if (++size > table.length - (table.length >>> 2)) {
+            resize(table.length << 1);
+        }
+        return node;
+    }
+
+    private static int hash(final Node nw, final Node ne, final Node sw, final Node se) {
+        int h = nw.hash * 0x9E3779B1 + ne.hash * 0x85EBCA77 + sw.hash * 0xC2B2AE3D + se.hash * 0x27D4EB2F;
+        return h ^ (h >>> 15);
+    }
+
+    /**
+     * Rehash all canonical nodes into a new table.
+     *
+     * @param capacity the number of buckets of the new table, a power of two
+     */
+    private void resize(final int capacity) {
+        Node[] old = table;
+        table = new Node[capacity];
+        for (Node head : old) {
+            while (head != null) {
+                Node next = head.next;
+                int bucket = head.hash & (capacity - 1);
+                head.next = table[bucket];
+                table[bucket] = head;
+                head = next;
+            }
+        }
+    }
+
+    /**
+     * Evict every node which is not part of the current universe together with all memoized results.
+     */
+    private void evict() {
+        for (Node head : table) {
+            while (head != null) {
+                Node next = head.next;
+                head.next = null;
+                head.result = null;
+                head.stepped = null;
+                head.steppedLog = -1;
+                head = next;
+            }
+        }
+        table = new Node[table.length];
+        size = 0;
+        emptyNodes = new Node[emptyNodes.length];
+        emptyNodes[0] = DEAD;
+        reinsert(root);
+        limit = Math.max(maxNodes, 2 * size);
+    }
+
+    /**
+     * Put back the node and its descendants into the canonical table.
+     *
+     * @param node the node to keep
+     */
+    private void reinsert(final Node node) {
+        if (node.level == 0) {
+            return;
+        }
+        int bucket = node.hash & (table.length - 1);
+        for (Node other = table[bucket]; other != null; other = other.next) {
+            if (other == node) {
+                return;
+            }
+        }
+        reinsert(node.nw);
+        reinsert(node.ne);
+        reinsert(node.sw);
+        reinsert(node.se);
+
+        node.next = table[bucket];
+        table[bucket] = node;
+        size++;
+        if (node.population == 0) {
+            emptyNodes[node.level] = node;
+        }
+    }
+
+    /**
+     * Set the current state of the system from given pattern.
+     *
+     * @param pattern pattern of the seed of the system
+     */
+    private void initSystemState(final Pattern pattern) {
+        vertical = pattern.getVertical();
+        horizontal = pattern.getHorizontal();
+
+        int level = MINIMUM_ROOT_LEVEL;
+        while ((1L << (level - 1)) < Math.max(vertical, horizontal)) {
+            level++;
+        }
+        root = empty(level);
+        for (int i = 0; i < pattern.size(); i++) {
+            root = setCell(root, pattern.x(i), pattern.y(i));
+        }
+    }
+
+    /**
+     * Bring the given cell to life in the node.
+     *
+     * @param node the node containing the cell
+     * @param x The x position of the cell relative to the centre of the node
+     * @param y The y position of the cell relative to the centre of the node
+     * @return The canonical node with the cell alive
+     */
+    private Node setCell(final Node node, final long x, final long y) {
+        if (node.level == 0) {
+            return ALIVE;
+        }
+        // Offset of the centre of the children, irrelevant for the leaves
+        long quarter = node.level > 1 ? 1L << (node.level - 2) : 0;
+        if (x < 0) {
+            if (y < 0) {
+                return join(setCell(node.nw, x + quarter, y + quarter), node.ne, node.sw, node.se);
+            }
+            return join(node.nw, setCell(node.ne, x + quarter, y - quarter), node.sw, node.se);
+        }
+        if (y < 0) {
+            return join(node.nw, node.ne, setCell(node.sw, x - quarter, y + quarter), node.se);
+        }
+        return join(node.nw, node.ne, node.sw, setCell(node.se, x - quarter, y - quarter));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < vertical; i++) {
+            for (int j = 0; j < horizontal; j++) {
+                if (isAlive(i, j)) {
+                    // Present the live cell by black square character
+                    builder.append("◾");
+                } else {
+                    // Present the dead cell by white square character
+                    builder.append("◽");
+                }
+            }
+            builder.append("\n");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * A canonical quadtree node, a square of {@code 2^level} cells wide.
+     */
+    private static final class Node {
+        final Node nw, ne, sw, se;
+
+        final int level;
+
+        final long population;
+
+        final int hash;
+
+        // Memoized centre of the node advanced by 2^(level - 2) generations
+        Node result;
+
+        // Memoized centre of the node advanced by 2^steppedLog generations, a smaller step, if steppedLog >= 0
+        Node stepped;
+
+        int steppedLog = -1;
+
+        // Next node in the same bucket of the canonical table
+        Node next;
+
+        /**
+         * Create a leaf.
+         *
+         * @param population 1 for the live cell, 0 for the dead cell
+         */
+        Node(final int population) {
+            this.nw = this.ne = this.sw = this.se = null;
+            this.level = 0;
+            this.population = population;
+            this.hash = population;
+        }
+
+        Node(final Node nw, final Node ne, final Node sw, final Node se, final int hash) {
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            this.level = nw.level + 1;
+            this.population = nw.population + ne.population + sw.population + se.population;
+            this.hash = hash;
+        }
+    }
+}
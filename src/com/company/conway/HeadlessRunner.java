@@ -0,0 +1,118 @@
+package com.company.conway;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javax.management.JMException;
+
+/**
+ * Batch runner of the Game Of Life engines, without any rendering.
+ * <p>
+ *     The seed is read from a pattern file by {@link PatternReader}, the chosen engine
+ *     is evolved flat out for the given number of generations and the runner reports the time
+ *     spent to load the seed and to evolve it, the generations per second and the final population.
+ * <p>
+ *     Usage: {@code HeadlessRunner <pattern file> <engine> <generations> [rule]}, the engine being one of
+ *     {@code bitset, torus, klein, free, block, conway, bitwise, parallel, vector, mapped, sparse, hashlife}.
+ *     The rule, like {@code B36/S23}, replaces the rule declared by the pattern file,
+ *     which is the Conway's rule when it declares none.
+ * <p>
+ *     The format of the pattern file is given by its extension: {@code .rle} for RLE,
+ *     {@code .lif} or {@code .life} for Life 1.06 and plain text otherwise.
+ * <p>
+ *     With {@code -Dconway.metrics=<milliseconds>} the engine is metered by {@link MeteredEngine}:
+ *     its metrics are registered as a JMX MBean and printed with the given period.
+ * <p>
+ *     With {@code -Dconway.export=<path>} every generation of the grid of the pattern is recorded by a
+ *     {@link FrameExporter}, as an animated GIF if the path ends with {@code .gif} and as a directory
+ *     of PNG frames otherwise.
+ */
+public class HeadlessRunner {
+    // The system property giving the period of the metrics log line in milliseconds
+    static final String METRICS_PROPERTY = "conway.metrics";
+
+    // The system property giving the file or the directory the generations are exported to
+    static final String EXPORT_PROPERTY = "conway.export";
+
+    /**
+     * Running an engine on a pattern file.
+     *
+     * @param args the pattern file, the engine, the number of generations and optionally the rule
+     * @throws IOException if the pattern file can not be read
+     * @throws JMException if the metrics can not be registered
+     */
+    public static void main(String[] args) throws IOException, JMException {
+        if (args.length != 3 && args.length != 4) {
+            System.err.println("Usage: HeadlessRunner <pattern file> <engine> <generations> [rule]");
+            System.err.println("Engines: " + EngineType.keys());
+            System.exit(2);
+        }
+        EngineType type = EngineType.fromKey(args[1]);
+        long generations = Long.parseLong(args[2]);
+
+        long start = System.nanoTime();
+        Pattern pattern = PatternReader.read(Paths.get(args[0]));
+        if (args.length == 4) {
+            pattern = pattern.withRule(Rule.parse(args[3]));
+        }
+        LifeEngine engine = type.create(pattern);
+        long loaded = System.nanoTime();
+
+        MeteredEngine metered = null;
+        Closeable log = null;
+        long period = Long.getLong(METRICS_PROPERTY, 0);
+        if (period > 0) {
+            metered = new MeteredEngine(engine);
+            metered.getMetrics().register(type.getKey());
+            log = metered.getMetrics().startLog(System.out, period);
+            engine = metered;
+        }
+        String export = System.getProperty(EXPORT_PROPERTY);
+        if (export == null) {
+            engine.advance(generations);
+        } else {
+            int vertical = pattern.getVertical();
+            int horizontal = pattern.getHorizontal();
+            Path path = Paths.get(export);
+            boolean gif = export.endsWith(".gif");
+            FrameWriter writer = gif
+                    ? new GifFrameWriter(path, vertical, horizontal, GifFrameWriter.DEFAULT_DELAY)
+                    : new PngFrameWriter(path, vertical, horizontal);
+            FrameExporter recorder;
+            try {
+                recorder = new FrameExporter(engine, 0, 0, vertical, horizontal, writer);
+            } catch (RuntimeException e) {
+                // The writer is closed by the exporter, only the empty animation is left
+                if (gif) {
+                    Files.deleteIfExists(path);
+                }
+                throw e;
+            }
+            try (FrameExporter exporter = recorder) {
+                exporter.capture();
+                for (long i = 0; i < generations; i++) {
+                    engine.step();
+                    exporter.capture();
+                }
+            }
+        }
+        long finished = System.nanoTime();
+        if (log != null) {
+            log.close();
+        }
+
+        double seconds = (finished - loaded) / 1e9;
+        System.out.printf("engine:       %s%n", type.getKey());
+        System.out.printf("rule:         %s%n", engine.getRule());
+        System.out.printf("load:         %.3f ms%n", (loaded - start) / 1e6);
+        System.out.printf("run:          %.3f ms%n", seconds * 1e3);
+        System.out.printf("generations:  %d%n", engine.getGeneration());
+        System.out.printf("gen/s:        %.1f%n", generations / seconds);
+        System.out.printf("population:   %d%n", engine.getPopulation());
+        if (metered != null) {
+            System.out.printf("metrics:      %s%n", metered.getMetrics());
+        }
+    }
+}
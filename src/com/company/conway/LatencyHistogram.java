@@ -0,0 +1,89 @@
+package com.company.conway;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations in nanoseconds, with one bucket per power of two.
+ * <p>
+ *     A single thread records the durations while any thread reads the percentiles, so the
+ *     buckets are atomic but only ever incremented by their owner. The percentiles are the
+ *     upper bounds of their buckets, at most twice the exact value.
+ */
+final class LatencyHistogram {
+    // Bucket i holds the durations d with 2^(i-1) <= d < 2^i, bucket 0 the zero durations
+    private final AtomicLongArray buckets = new AtomicLongArray(64);
+
+    private volatile long count;
+
+    private volatile long total;
+
+    private volatile long max;
+
+    /**
+     * Record a duration, from the owner thread only.
+     *
+     * @param nanos The duration in nanoseconds
+     */
+    void record(final long nanos) {
+        long duration = Math.max(0, nanos);
+        int bucket = 64 - Long.numberOfLeadingZeros(duration);
+        buckets.lazySet(bucket, buckets.get(bucket) + 1);
+        total += duration;
+        if (duration > max) {
+            max = duration;
+        }
+        count++;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getTotal() {
+        return total;
+    }
+
+    long getMax() {
+        return max;
+    }
+
+    /**
+     * @return The mean duration in nanoseconds, {@code 0} if nothing was recorded
+     */
+    long getMean() {
+        long n = count;
+        return n == 0 ? 0 : total / n;
+    }
+
+    /**
+     * @param percentile The percentile, from {@code 0} to {@code 100}
+     * @return The upper bound of the bucket holding the percentile, {@code 0} if nothing was recorded
+     */
+    long getPercentile(final double percentile) {
+        long n = count;
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(n * percentile / 100);
+        long seen = 0;
+        for (int bucket = 0; bucket < 64; bucket++) {
+            seen += buckets.get(bucket);
+            if (seen >= rank) {
+                return bucket == 0 ? 0 : Math.min(max, (1L << bucket) - 1);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Forget every recorded duration, from the owner thread only.
+     */
+    void reset() {
+        for (int bucket = 0; bucket < 64; bucket++) {
+            buckets.lazySet(bucket, 0);
+        }
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+}
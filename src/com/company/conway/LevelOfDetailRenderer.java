@@ -0,0 +1,105 @@
+package com.company.conway;
+
+/**
+ * Text view of a fixed size viewport over an engine, at any zoom level.
+ * <p>
+ *     At scale 1 every character is a cell, as in the {@code toString()} of the engines.
+ *     At larger scales every character is a square block of cells, shaded by its population,
+ *     which is read from a {@link PopulationMipmap} kept up to date by the engine as it steps.
+ *     Rendering a frame therefore costs time proportional to the size of the viewport,
+ *     whatever the size of the board.
+ */
+class LevelOfDetailRenderer {
+    // Glyphs of the blocks from empty to full
+    private static final String[] SHADES = {"◽", "░", "▒", "▓", "◾"};
+
+    final private LifeEngine engine;
+
+    final private PopulationMipmap mipmap;
+
+    // The position of the north west cell of the rendered region on the plane
+    final private long top;
+
+    final private long left;
+
+    /**
+     * Create the renderer of a region of an engine, and add it as a cell listener of the engine.
+     *
+     * @param engine The engine to render
+     * @param top The x position of the north west cell of the region
+     * @param left The y position of the north west cell of the region
+     * @param vertical The number of rows of the region
+     * @param horizontal The number of columns of the region
+     * @throws UnsupportedOperationException if the engine can not report its changes
+     */
+    LevelOfDetailRenderer(final LifeEngine engine, final long top, final long left,
+                          final int vertical, final int horizontal) {
+        this.engine = engine;
+        this.top = top;
+        this.left = left;
+        this.mipmap = new PopulationMipmap(top, left, vertical, horizontal);
+        engine.addCellListener(mipmap);
+    }
+
+    /**
+     * Render a viewport.
+     *
+     * @param x The x position of the north west cell of the viewport, aligned down to the blocks of the scale
+     * @param y The y position of the north west cell of the viewport, aligned down to the blocks of the scale
+     * @param rows The number of rows of characters
+     * @param columns The number of characters per row
+     * @param scale The width and height in cells of a character, a power of two
+     * @return The rows of characters, each ended by a line feed
+     * @throws IllegalArgumentException if the scale is not a power of two or beyond the coarsest level
+     */
+    String render(final long x, final long y, final int rows, final int columns, final int scale) {
+        if (scale < 1 || Integer.bitCount(scale) != 1) {
+            throw new IllegalArgumentException();
+        }
+        int level = Integer.numberOfTrailingZeros(scale) - PopulationMipmap.BASE_SHIFT;
+        if (level >= mipmap.getLevels()) {
+            throw new IllegalArgumentException();
+        }
+
+        long firstX = top + Math.floorDiv(x - top, scale) * scale;
+        long firstY = left + Math.floorDiv(y - left, scale) * scale;
+        int cells = scale * scale;
+        StringBuilder builder = new StringBuilder(rows * (columns + 1) * 2);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                long blockX = firstX + (long) i * scale;
+                long blockY = firstY + (long) j * scale;
+                int population = level < 0 ? countCells(blockX, blockY, scale) : mipmap.getPopulation(level, blockX, blockY);
+                builder.append(shadeOf(population, cells));
+            }
+            builder.append("\n");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Count the live cells of a block below the finest level of the mipmap directly on the engine.
+     */
+    private int countCells(final long x, final long y, final int scale) {
+        int count = 0;
+        for (int i = 0; i < scale; i++) {
+            for (int j = 0; j < scale; j++) {
+                if (engine.isAlive(x + i, y + j)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static String shadeOf(final int population, final int cells) {
+        if (population == 0) {
+            return SHADES[0];
+        }
+        if (population == cells) {
+            return SHADES[SHADES.length - 1];
+        }
+        // Partly filled blocks never look empty nor full
+        return SHADES[1 + (int) ((long) population * (SHADES.length - 2) / cells)];
+    }
+}
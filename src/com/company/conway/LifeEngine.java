@@ -0,0 +1,82 @@
+package com.company.conway;
+
+/**
+ * Common view of the Game Of Life engines, so they can be driven and queried
+ * the same way whatever their storage.
+ * <p>
+ *     Cells are addressed as in the seeds of the engines: {@code x} is the row
+ *     and {@code y} the column of the cell, {@code (0, 0)} being the north west
+ *     cell of the seed. Bounded engines report the cells outside of their grid as dead.
+ */
+interface LifeEngine {
+
+    /**
+     * Transition to the next generation by applying the rule of the system, see {@link #getRule()}.
+     */
+    void step();
+
+    /**
+     * Advance the system by the given number of generations.
+     *
+     * @param generations the number of generations to advance
+     * @throws IllegalArgumentException if {@code generations} is negative
+     */
+    default void advance(long generations) {
+        if (generations < 0) {
+            throw new IllegalArgumentException();
+        }
+        for (long i = 0; i < generations; i++) {
+            step();
+        }
+    }
+
+    /**
+     * @return The number of generations evolved since the seed
+     */
+    long getGeneration();
+
+    /**
+     * @return The number of live cells in the current generation
+     */
+    long getPopulation();
+
+    /**
+     * Check whether the given cell is alive in the current generation.
+     *
+     * @param x The x position of the cell
+     * @param y The y position of the cell
+     * @return {@code true} if the cell is alive; otherwise {@code false}
+     */
+    boolean isAlive(long x, long y);
+
+    /**
+     * @return The rule the system evolves with
+     */
+    Rule getRule();
+
+    /**
+     * @return {@code true} if the cells outside of a fixed grid are always dead,
+     *          {@code false} if the system evolves on the infinite plane
+     */
+    default boolean isBounded() {
+        return true;
+    }
+
+    /**
+     * Add a listener of the cells changed by the next generations.
+     * <p>The listener is first called once for every live cell of the current generation,
+     * so it starts from the same state as the engine. Every listener added is called for
+     * every change, in the order they were added.
+     *
+     * @param listener the listener
+     * @throws UnsupportedOperationException if the engine can not report its changes
+     */
+    void addCellListener(CellListener listener);
+
+    /**
+     * Remove a listener, which is not called for the next generations.
+     *
+     * @param listener the listener, nothing happens if it was not added
+     */
+    void removeCellListener(CellListener listener);
+}
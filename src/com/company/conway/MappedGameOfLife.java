@@ -0,0 +1,465 @@
+package com.company.conway;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Variant of {@link BitwiseGameOfLife} keeping both generations off the Java heap.
+ * <p>
+ *     The words of the grid live either in direct buffers or in a memory-mapped file,
+ *     so a universe of billions of cells does not put any pressure on the garbage collector.
+ *     Cells and rows are indexed with {@code long} values and every generation is split
+ *     into segments of whole rows, none of them larger than 1 GB.
+ * <p>
+ *     A file backed universe keeps its dimensions, the generation number and the current
+ *     generation and its rule in a small header at the start of the file, and every generation is written
+ *     in place, so it survives a restart by opening the file again with {@link #open(Path)}.
+ * <p>
+ *     File layout: a 64 bytes header followed by the two generations, each of them
+ *     {@code vertical + 2} rows (with a zero row above and below the grid) of
+ *     {@code wordsPerRow + 1} native order {@code long} words (with a zero word at the end).
+ */
+class MappedGameOfLife implements LifeEngine, Closeable {
+    // "GOLM" in ASCII
+    private static final int MAGIC = 0x474F4C4D;
+
+    private static final int VERSION = 2;
+
+    // Files of the first version have no rule and evolve with the Conway's rule
+    private static final int CONWAY_VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int VERTICAL_OFFSET = 8;
+    private static final int HORIZONTAL_OFFSET = 16;
+    private static final int GENERATION_OFFSET = 24;
+    private static final int CURRENT_OFFSET = 32;
+    private static final int RULE_OFFSET = 40;
+
+    // The largest size of a single buffer of a generation
+    private static final long MAXIMUM_SEGMENT_SIZE = 1L << 30;
+
+    // The file of the universe, null when the universe lives in direct buffers
+    private final FileChannel channel;
+
+    // Dimensions, generation number and index of the current generation
+    private ByteBuffer header;
+
+    // Segments of both generations, each holding rowsPerSegment padded rows
+    private LongBuffer[][] generations;
+
+    // The mapped regions of the file, null when the universe lives in direct buffers
+    private MappedByteBuffer[] mappings;
+
+    // The index of the current generation in generations, the other one is the temporary generation
+    private int current;
+
+    private long generation;
+
+    final private Rule rule;
+
+    // Receivers of the changed cells
+    final private CellListeners listeners = new CellListeners();
+
+    private long horizontal;
+
+    private long vertical;
+
+    // Number of words holding the cells of a row
+    private int wordsPerRow;
+
+    // Distance between two consecutive rows in a segment (including the padding word)
+    private int stride;
+
+    private int rowsPerSegment;
+
+    // Mask of the columns inside the grid for the last word of a row
+    private long lastWordMask;
+
+    /**
+     * Initialize the current state of an off-heap system with a given seed.
+     *
+     * @param seedOfTheSystem seed of the system
+     * @throws UnsupportedOperationException throw {@link UnsupportedOperationException}
+     *          if the input {@code null} value for {@code seedOfTheSystem}
+     */
+    public MappedGameOfLife(final byte[][] seedOfTheSystem) {
+        this(Pattern.fromSeed(seedOfTheSystem));
+    }
+
+    /**
+     * Initialize the current state of an off-heap system with the live cells of a pattern.
+     *
+     * @param pattern the pattern of the seed, its grid being the grid of the system
+     */
+    MappedGameOfLife(final Pattern pattern) {
+        channel = null;
+        rule = pattern.getRule();
+        setLayout(pattern.getVertical(), pattern.getHorizontal());
+        header = ByteBuffer.allocateDirect(HEADER_SIZE).order(ByteOrder.nativeOrder());
+        writeHeader();
+        generations = new LongBuffer[2][];
+        for (int g = 0; g < 2; g++) {
+            generations[g] = new LongBuffer[segmentCount()];
+            for (int i = 0; i < generations[g].length; i++) {
+                generations[g][i] = ByteBuffer.allocateDirect(segmentSize(i))
+                        .order(ByteOrder.nativeOrder()).asLongBuffer();
+            }
+        }
+
+        for (int i = 0; i < pattern.size(); i++) {
+            setAlive(pattern.x(i), pattern.y(i), true);
+        }
+    }
+
+    private MappedGameOfLife(final FileChannel channel, final long vertical, final long horizontal,
+                             final Rule rule, final boolean existing) throws IOException {
+        this.channel = channel;
+        this.rule = rule;
+        setLayout(vertical, horizontal);
+
+        long generationSize = (vertical + 2) * stride * 8L;
+        if (!existing) {
+            // Grow the file, the unwritten regions read as zero
+            channel.write(ByteBuffer.allocate(1), HEADER_SIZE + 2 * generationSize - 1);
+        } else if (channel.size() < HEADER_SIZE + 2 * generationSize) {
+            throw new IOException("Truncated universe file");
+        }
+
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE).order(ByteOrder.nativeOrder());
+        mappings = new MappedByteBuffer[1 + 2 * segmentCount()];
+        mappings[0] = (MappedByteBuffer) header;
+        if (existing) {
+            current = header.getInt(CURRENT_OFFSET);
+            generation = header.getLong(GENERATION_OFFSET);
+        } else {
+            writeHeader();
+        }
+
+        generations = new LongBuffer[2][];
+        for (int g = 0; g < 2; g++) {
+            generations[g] = new LongBuffer[segmentCount()];
+            long position = HEADER_SIZE + g * generationSize;
+            for (int i = 0; i < generations[g].length; i++) {
+                int size = segmentSize(i);
+                MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+                mappings[1 + g * generations[g].length + i] = mapping;
+                generations[g][i] = mapping.order(ByteOrder.nativeOrder()).asLongBuffer();
+                position += size;
+            }
+        }
+    }
+
+    /**
+     * Create a new empty universe backed by a file, evolving with the Conway's rule.
+     *
+     * @param file the file of the universe, replaced if it exists
+     * @param vertical The number of rows of the grid
+     * @param horizontal The number of columns of the grid
+     * @return The universe mapped from the file
+     * @throws IOException if the file can not be created or mapped
+     * @throws IllegalArgumentException if a dimension is less than 1
+     */
+    public static MappedGameOfLife create(final Path file, final long vertical, final long horizontal)
+            throws IOException {
+        return create(file, vertical, horizontal, Rule.CONWAY);
+    }
+
+    /**
+     * Create a new empty universe backed by a file.
+     *
+     * @param file the file of the universe, replaced if it exists
+     * @param vertical The number of rows of the grid
+     * @param horizontal The number of columns of the grid
+     * @param rule The rule the universe evolves with
+     * @return The universe mapped from the file
+     * @throws IOException if the file can not be created or mapped
+     * @throws IllegalArgumentException if a dimension is less than 1
+     */
+    static MappedGameOfLife create(final Path file, final long vertical, final long horizontal, final Rule rule)
+            throws IOException {
+        if (vertical < 1 || horizontal < 1) {
+            throw new IllegalArgumentException();
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new MappedGameOfLife(channel, vertical, horizontal, rule, false);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Map again a universe created by {@link #create(Path, long, long)}, at the generation it was left.
+     *
+     * @param file the file of the universe
+     * @return The universe mapped from the file
+     * @throws IOException if the file can not be mapped or is not a universe file
+     */
+    public static MappedGameOfLife open(final Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.nativeOrder());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) {
+                    break;
+                }
+            }
+            if (buffer.hasRemaining() || buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+                throw new IOException("Not a universe file");
+            }
+            int version = buffer.getInt(VERSION_OFFSET);
+            if (version != VERSION && version != CONWAY_VERSION) {
+                throw new IOException("Unsupported universe file version " + version);
+            }
+            Rule rule = version == CONWAY_VERSION ? Rule.CONWAY : Rule.of(buffer.getInt(RULE_OFFSET));
+            MappedGameOfLife life = new MappedGameOfLife(channel, buffer.getLong(VERTICAL_OFFSET),
+                    buffer.getLong(HORIZONTAL_OFFSET), rule, true);
+            if (version == CONWAY_VERSION) {
+                // Upgrade the header, so the file records its rule from now on
+                life.writeHeader();
+            }
+            return life;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Transition to the next generation by applying the {@link Rule} of the system.
+     */
+    public void nextGeneration() {
+        LongBuffer[] cur = generations[current];
+        LongBuffer[] next = generations[1 - current];
+        for (long i = 1; i <= vertical; i++) {
+            evolveRow(cur, next, i);
+        }
+
+        // Swap the next generation to the current generation for the next step time,
+        // the header only switches to the next generation once it is completely written
+        current = 1 - current;
+        generation++;
+        header.putLong(GENERATION_OFFSET, generation);
+        header.putInt(CURRENT_OFFSET, current);
+    }
+
+    /**
+     * Compute the next generation of a single padded row.
+     *
+     * @param cur The segments of the current generation
+     * @param next The segments of the next generation
+     * @param row The padded row, from 1 to {@code vertical}
+     */
+    private void evolveRow(final LongBuffer[] cur, final LongBuffer[] next, final long row) {
+        LongBuffer northSegment = cur[(int) ((row - 1) / rowsPerSegment)];
+        LongBuffer centreSegment = cur[(int) (row / rowsPerSegment)];
+        LongBuffer southSegment = cur[(int) ((row + 1) / rowsPerSegment)];
+        LongBuffer nextSegment = next[(int) (row / rowsPerSegment)];
+        int n = (int) ((row - 1) % rowsPerSegment) * stride;
+        int c = (int) (row % rowsPerSegment) * stride;
+        int s = (int) ((row + 1) % rowsPerSegment) * stride;
+
+        // Sliding 3x3 window of words, the west column starts on the (dead) outside of the grid
+        long nw = 0, w = 0, sw = 0;
+        long nc = northSegment.get(n), cc = centreSegment.get(c), sc = southSegment.get(s);
+        for (int k = 0; k < wordsPerRow; k++) {
+            // The padding word at the end of the row makes k + 1 always readable
+            long ne = northSegment.get(n + k + 1);
+            long ce = centreSegment.get(c + k + 1);
+            long se = southSegment.get(s + k + 1);
+
+            long word = BitKernel.evolve(rule, nw, nc, ne, w, cc, ce, sw, sc, se);
+            if (k == wordsPerRow - 1) {
+                word &= lastWordMask;
+            }
+            nextSegment.put(c + k, word);
+            if (!listeners.isEmpty() && word != cc) {
+                listeners.wordChanged(row - 1, (long) k << 6, cc, word);
+            }
+
+            nw = nc;
+            nc = ne;
+            w = cc;
+            cc = ce;
+            sw = sc;
+            sc = se;
+        }
+    }
+
+    @Override
+    public void step() {
+        nextGeneration();
+    }
+
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    @Override
+    public boolean isAlive(final long x, final long y) {
+        if (x < 0 || x >= vertical || y < 0 || y >= horizontal) {
+            return false;
+        }
+        long row = x + 1;
+        LongBuffer segment = generations[current][(int) (row / rowsPerSegment)];
+        return (segment.get(getIndex(row, y)) & (1L << y)) != 0;
+    }
+
+    /**
+     * Set the state of the given cell in the current generation.
+     *
+     * @param x The x position of the cell
+     * @param y The y position of the cell
+     * @param alive the new state of the cell
+     * @throws IndexOutOfBoundsException if the cell is outside of the grid
+     */
+    public void setAlive(final long x, final long y, final boolean alive) {
+        if (x < 0 || x >= vertical || y < 0 || y >= horizontal) {
+            throw new IndexOutOfBoundsException();
+        }
+        long row = x + 1;
+        LongBuffer segment = generations[current][(int) (row / rowsPerSegment)];
+        int index = getIndex(row, y);
+        long word = segment.get(index);
+        segment.put(index, alive ? word | (1L << y) : word & ~(1L << y));
+        if (!listeners.isEmpty() && alive != ((word & (1L << y)) != 0)) {
+            listeners.cellChanged(x, y, alive);
+        }
+    }
+
+    @Override
+    public void addCellListener(final CellListener listener) {
+        listeners.add(listener);
+        for (long row = 1; row <= vertical; row++) {
+            LongBuffer segment = generations[current][(int) (row / rowsPerSegment)];
+            int c = getIndex(row, 0);
+            for (int k = 0; k < wordsPerRow; k++) {
+                listener.wordChanged(row - 1, (long) k << 6, 0, segment.get(c + k));
+            }
+        }
+    }
+
+    @Override
+    public void removeCellListener(final CellListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public long getPopulation() {
+        long population = 0;
+        for (LongBuffer segment : generations[current]) {
+            for (int i = 0; i < segment.limit(); i++) {
+                population += Long.bitCount(segment.get(i));
+            }
+        }
+        return population;
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Write the changes of a file backed universe to the storage device.
+     */
+    public void flush() {
+        if (mappings == null) {
+            return;
+        }
+        // The header goes last so it never points to a generation which is not on the device yet
+        for (int i = mappings.length - 1; i >= 0; i--) {
+            mappings[i].force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Calculate the index of the word holding the given cell in its segment.
+     *
+     * @param row The padded row of the cell
+     * @param y The y position of the cell
+     * @return The index of the word of the cell
+     */
+    private int getIndex(final long row, final long y) {
+        return (int) (row % rowsPerSegment) * stride + (int) (y >>> 6);
+    }
+
+    private void setLayout(final long vertical, final long horizontal) {
+        this.vertical = vertical;
+        this.horizontal = horizontal;
+        long words = (horizontal + 63) >>> 6;
+        if ((words + 1) * 8 > MAXIMUM_SEGMENT_SIZE) {
+            throw new IllegalArgumentException();
+        }
+        wordsPerRow = (int) words;
+        stride = wordsPerRow + 1;
+        rowsPerSegment = (int) (MAXIMUM_SEGMENT_SIZE / (stride * 8L));
+        lastWordMask = (horizontal & 63) == 0 ? -1L : (1L << (horizontal & 63)) - 1;
+    }
+
+    /**
+     * @return The number of segments of a generation
+     */
+    private int segmentCount() {
+        return (int) ((vertical + 2 + rowsPerSegment - 1) / rowsPerSegment);
+    }
+
+    /**
+     * @param segment the index of the segment
+     * @return The size in bytes of the segment, the last one only holds the remaining rows
+     */
+    private int segmentSize(final int segment) {
+        long rows = Math.min(rowsPerSegment, vertical + 2 - (long) segment * rowsPerSegment);
+        return (int) (rows * stride * 8L);
+    }
+
+    private void writeHeader() {
+        header.putInt(MAGIC_OFFSET, MAGIC);
+        header.putInt(VERSION_OFFSET, VERSION);
+        header.putLong(VERTICAL_OFFSET, vertical);
+        header.putLong(HORIZONTAL_OFFSET, horizontal);
+        header.putLong(GENERATION_OFFSET, generation);
+        header.putInt(CURRENT_OFFSET, current);
+        header.putInt(RULE_OFFSET, rule.getCode());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        for (long i = 0; i < vertical; i++) {
+            for (long j = 0; j < horizontal; j++) {
+                if (isAlive(i, j)) {
+                    // Present the live cell by black square character
+                    builder.append("◾");
+                } else {
+                    // Present the dead cell by white square character
+                    builder.append("◽");
+                }
+            }
+            builder.append("\n");
+        }
+
+        return builder.toString();
+    }
+}
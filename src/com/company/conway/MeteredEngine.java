@@ -0,0 +1,169 @@
+package com.company.conway;
+
+import com.company.util.LongIntHashMap;
+
+/**
+ * Engine wrapper maintaining the metrics of the wrapped engine while it evolves.
+ * <p>
+ *     The births and deaths reported by the engine update the population and the number of
+ *     live cells of every row and column, so nothing is rescanned after a generation. The
+ *     bounding box grows with every birth, and only shrinks when the last cell of its first or
+ *     last row or column dies: it is then recomputed from the rows and columns which still
+ *     hold a live cell, not from the cells.
+ * <p>
+ *     Every generation is timed and published to the {@link EngineMetrics}, which can be read
+ *     from any thread, registered as a JMX MBean or printed periodically.
+ */
+class MeteredEngine implements LifeEngine, CellListener {
+    final private LifeEngine engine;
+
+    final private EngineMetrics metrics;
+
+    // Number of live cells of every row and column holding at least one
+    final private LongIntHashMap rows;
+
+    final private LongIntHashMap columns;
+
+    private long population;
+
+    // Births and deaths of the generation being computed
+    private long births;
+
+    private long deaths;
+
+    // The bounding box of the live cells, meaningless when the population is 0
+    private long minX;
+
+    private long minY;
+
+    private long maxX;
+
+    private long maxY;
+
+    // Whether a border of the bounding box lost its last live cell
+    private boolean shrunk;
+
+    /**
+     * Wrap an engine.
+     *
+     * @param engine the engine to meter, which must not be stepped directly anymore
+     * @throws UnsupportedOperationException if the engine can not report its changes
+     */
+    MeteredEngine(final LifeEngine engine) {
+        this.engine = engine;
+        metrics = new EngineMetrics();
+        rows = new LongIntHashMap();
+        columns = new LongIntHashMap();
+        engine.addCellListener(this);
+        births = 0;
+        deaths = 0;
+        publish();
+    }
+
+    /**
+     * @return The metrics of the engine
+     */
+    EngineMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void step() {
+        births = 0;
+        deaths = 0;
+        long start = System.nanoTime();
+        engine.step();
+        long nanos = System.nanoTime() - start;
+        publish();
+        long area = population == 0 ? 0 : (maxX - minX + 1) * (maxY - minY + 1);
+        metrics.recordTick(nanos, births, deaths, area);
+    }
+
+    @Override
+    public long getGeneration() {
+        return engine.getGeneration();
+    }
+
+    @Override
+    public long getPopulation() {
+        return population;
+    }
+
+    @Override
+    public boolean isAlive(final long x, final long y) {
+        return engine.isAlive(x, y);
+    }
+
+    @Override
+    public Rule getRule() {
+        return engine.getRule();
+    }
+
+    @Override
+    public boolean isBounded() {
+        return engine.isBounded();
+    }
+
+    @Override
+    public void addCellListener(final CellListener listener) {
+        // The metered engine reports the same cells as the engine
+        engine.addCellListener(listener);
+    }
+
+    @Override
+    public void removeCellListener(final CellListener listener) {
+        engine.removeCellListener(listener);
+    }
+
+    @Override
+    public void cellChanged(final long x, final long y, final boolean alive) {
+        if (alive) {
+            births++;
+            if (population++ == 0) {
+                minX = maxX = x;
+                minY = maxY = y;
+            } else {
+                minX = Math.min(minX, x);
+                maxX = Math.max(maxX, x);
+                minY = Math.min(minY, y);
+                maxY = Math.max(maxY, y);
+            }
+            rows.addTo(x, 1);
+            columns.addTo(y, 1);
+        } else {
+            deaths++;
+            population--;
+            if (rows.addTo(x, -1) == 0) {
+                rows.remove(x);
+                shrunk |= x == minX || x == maxX;
+            }
+            if (columns.addTo(y, -1) == 0) {
+                columns.remove(y);
+                shrunk |= y == minY || y == maxY;
+            }
+        }
+    }
+
+    /**
+     * Publish the current generation to the metrics, fixing the bounding box first if it shrunk.
+     */
+    private void publish() {
+        if (shrunk && population > 0) {
+            minX = Long.MAX_VALUE;
+            maxX = Long.MIN_VALUE;
+            for (int slot = rows.nextSlot(0); slot >= 0; slot = rows.nextSlot(slot + 1)) {
+                minX = Math.min(minX, rows.keyAt(slot));
+                maxX = Math.max(maxX, rows.keyAt(slot));
+            }
+            minY = Long.MAX_VALUE;
+            maxY = Long.MIN_VALUE;
+            for (int slot = columns.nextSlot(0); slot >= 0; slot = columns.nextSlot(slot + 1)) {
+                minY = Math.min(minY, columns.keyAt(slot));
+                maxY = Math.max(maxY, columns.keyAt(slot));
+            }
+        }
+        shrunk = false;
+        long[] box = population == 0 ? null : new long[]{minX, minY, maxX, maxY};
+        metrics.publish(engine.getGeneration(), population, births, deaths, box);
+    }
+}
@@ -0,0 +1,201 @@
+package com.company.conway;
+
+import java.util.Arrays;
+
+/**
+ * The live cells of a seed, stored as a list of packed {@link CellKey} values.
+ * <p>
+ *     Unlike a {@code byte[][]} seed the memory of a pattern is proportional to its
+ *     live cells, not to its bounding rectangle, so the engines can be seeded with
+ *     large sparse patterns. The grid of a pattern starts at {@code (0, 0)} and is
+ *     {@code vertical} rows by {@code horizontal} columns; every cell is inside of it.
+ *     A pattern also carries the rule it evolves with, the Conway's rule unless a file declares another one.
+ */
+final class Pattern {
+    final private long[] cells;
+
+    final private int vertical;
+
+    final private int horizontal;
+
+    final private Rule rule;
+
+    private Pattern(final long[] cells, final int vertical, final int horizontal, final Rule rule) {
+        this.cells = cells;
+        this.vertical = vertical;
+        this.horizontal = horizontal;
+        this.rule = rule;
+    }
+
+    /**
+     * Create the pattern of a dense seed.
+     *
+     * @param seed seed of the system, the cells of value {@code 1} are alive
+     * @return The pattern, with the dimensions of the seed
+     * @throws UnsupportedOperationException if the seed is {@code null} or empty
+     */
+    static Pattern fromSeed(final byte[][] seed) {
+        if (seed == null || seed.length == 0 || seed[0].length == 0) {
+            throw new UnsupportedOperationException();
+        }
+        Builder builder = new Builder();
+        builder.setSize(seed.length, seed[0].length);
+        for (int i = 0; i < seed.length; i++) {
+            for (int j = 0; j < seed[0].length; j++) {
+                if (seed[i][j] == 1) {
+                    builder.add(i, j);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return The number of live cells
+     */
+    int size() {
+        return cells.length;
+    }
+
+    /**
+     * @return The x position of the given live cell
+     */
+    int x(final int index) {
+        return CellKey.x(cells[index]);
+    }
+
+    /**
+     * @return The y position of the given live cell
+     */
+    int y(final int index) {
+        return CellKey.y(cells[index]);
+    }
+
+    /**
+     * @return The number of rows of the grid
+     */
+    int getVertical() {
+        return vertical;
+    }
+
+    /**
+     * @return The number of columns of the grid
+     */
+    int getHorizontal() {
+        return horizontal;
+    }
+
+    /**
+     * @return The rule the pattern evolves with
+     */
+    Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * @param rule the rule the pattern evolves with
+     * @return The same cells evolving with the given rule
+     */
+    Pattern withRule(final Rule rule) {
+        return new Pattern(cells, vertical, horizontal, rule);
+    }
+
+    /**
+     * Collector of the live cells of a pattern while it is read.
+     * <p>
+     *     Cells may be added at any position, the pattern is moved so that none
+     *     of them is at a negative position when it is built.
+     */
+    static final class Builder {
+        private long[] cells = new long[64];
+
+        private int size;
+
+        private long minX;
+
+        private long minY;
+
+        private long maxX = -1;
+
+        private long maxY = -1;
+
+        // Whether the cells were added row after row, as the RLE and plain text files list them
+        private boolean ordered = true;
+
+        private Rule rule = Rule.CONWAY;
+
+        /**
+         * Make the grid of the pattern at least as large as given, as declared by the header of a file.
+         *
+         * @param vertical The minimum number of rows
+         * @param horizontal The minimum number of columns
+         */
+        void setSize(final long vertical, final long horizontal) {
+            maxX = Math.max(maxX, vertical - 1);
+            maxY = Math.max(maxY, horizontal - 1);
+        }
+
+        /**
+         * @param rule the rule the pattern evolves with, as declared by the header of a file
+         */
+        void setRule(final Rule rule) {
+            this.rule = rule;
+        }
+
+        /**
+         * Add a live cell, adding a cell twice keeps it once.
+         *
+         * @param x The x position of the cell
+         * @param y The y position of the cell
+         * @throws IllegalArgumentException if the position does not fit in an {@code int}
+         */
+        void add(final long x, final long y) {
+            if (x != (int) x || y != (int) y) {
+                throw new IllegalArgumentException("Cell out of range: " + x + ", " + y);
+            }
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, size * 2);
+            }
+            long key = CellKey.pack((int) x, (int) y);
+            ordered &= size == 0 || key > cells[size - 1];
+            cells[size++] = key;
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+
+        /**
+         * @return The pattern of the added cells, at least one cell wide and high
+         * @throws IllegalArgumentException if the pattern is larger than {@code Integer.MAX_VALUE} cells on a side
+         */
+        Pattern build() {
+            long vertical = Math.max(1, maxX - minX + 1);
+            long horizontal = Math.max(1, maxY - minY + 1);
+            if (vertical > Integer.MAX_VALUE || horizontal > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Pattern too large: " + vertical + "x" + horizontal);
+            }
+
+            long[] sorted = Arrays.copyOf(cells, size);
+            if (minX < 0 || minY < 0) {
+                for (int i = 0; i < sorted.length; i++) {
+                    sorted[i] = CellKey.pack(CellKey.x(sorted[i]) - (int) minX, CellKey.y(sorted[i]) - (int) minY);
+                }
+            }
+            if (ordered) {
+                // Strictly increasing keys can not hold a cell twice
+                return new Pattern(sorted, (int) vertical, (int) horizontal, rule);
+            }
+
+            // Sorting groups the cells row after row and lets the duplicates be dropped
+            Arrays.sort(sorted);
+            int unique = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[unique++] = sorted[i];
+                }
+            }
+            return new Pattern(Arrays.copyOf(sorted, unique), (int) vertical, (int) horizontal, rule);
+        }
+    }
+}
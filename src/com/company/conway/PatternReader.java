@@ -0,0 +1,303 @@
+package com.company.conway;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streaming reader of pattern files in the RLE, Life 1.06 and plain text ({@code .cells}) formats.
+ * <p>
+ *     The file is read through a channel into a fixed size buffer and parsed byte by byte,
+ *     every live cell going straight into a {@link Pattern.Builder}, so reading a pattern
+ *     needs memory proportional to its live cells whatever the size of the file or of
+ *     its bounding rectangle.
+ * <p>
+ *     The rule declared by the header of an RLE file becomes the rule of the pattern.
+ * <p>
+ *     Cells are addressed as in the seeds of the engines, {@code x} being the row
+ *     and {@code y} the column. Life 1.06 files list {@code column row} pairs and may use
+ *     negative positions, the pattern is then moved so that its north west corner is {@code (0, 0)}.
+ */
+final class PatternReader {
+    // Size of the buffer the channel is read into
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The supported file formats.
+     */
+    enum Format {
+        RLE,
+        LIFE_106,
+        PLAINTEXT;
+
+        /**
+         * Guess the format of a file from its extension: {@code .rle} for RLE,
+         * {@code .lif} and {@code .life} for Life 1.06, plain text otherwise.
+         *
+         * @param path The pattern file
+         * @return The format of the file
+         */
+        static Format of(final Path path) {
+            String name = path.getFileName().toString().toLowerCase();
+            if (name.endsWith(".rle")) {
+                return RLE;
+            }
+            if (name.endsWith(".lif") || name.endsWith(".life")) {
+                return LIFE_106;
+            }
+            return PLAINTEXT;
+        }
+    }
+
+    final private ReadableByteChannel channel;
+
+    final private ByteBuffer buffer;
+
+    final private Pattern.Builder builder;
+
+    // The line being read, for the error messages
+    private long line = 1;
+
+    private PatternReader(final ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.buffer.limit(0);
+        this.builder = new Pattern.Builder();
+    }
+
+    /**
+     * Read a pattern file, its format being guessed from its extension.
+     *
+     * @param path The pattern file
+     * @return The pattern
+     * @throws IOException if the file can not be read
+     * @throws IllegalArgumentException if the file is not a valid pattern
+     */
+    static Pattern read(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel, Format.of(path));
+        }
+    }
+
+    /**
+     * Read a pattern from a channel, which is left open.
+     *
+     * @param channel The channel to read
+     * @param format The format of the pattern
+     * @return The pattern
+     * @throws IOException if the channel can not be read
+     * @throws IllegalArgumentException if the channel does not hold a valid pattern
+     */
+    static Pattern read(final ReadableByteChannel channel, final Format format) throws IOException {
+        PatternReader reader = new PatternReader(channel);
+        switch (format) {
+            case RLE:
+                reader.readRle();
+                break;
+            case LIFE_106:
+                reader.readLife106();
+                break;
+            default:
+                reader.readPlaintext();
+                break;
+        }
+        return reader.builder.build();
+    }
+
+    /**
+     * Read a run length encoded pattern: an optional {@code x = m, y = n} header then runs of
+     * {@code b} (dead) or {@code o} (alive) cells, {@code $} ending a row and {@code !} the pattern.
+     * Lines starting with {@code #} are comments. In multi-state files every state other than
+     * {@code b} and {@code .} is alive.
+     */
+    private void readRle() throws IOException {
+        long x = 0;
+        long y = 0;
+        long count = 0;
+        boolean lineStart = true;
+        int c;
+        while ((c = next()) >= 0) {
+            if (lineStart && (c == '#' || c == 'x')) {
+                String text = readLine();
+                if (c == 'x') {
+                    readRleHeader("x" + text);
+                }
+                continue;
+            }
+            lineStart = c == '\n';
+            if (c >= '0' && c <= '9') {
+                count = count * 10 + (c - '0');
+                continue;
+            }
+            long run = count == 0 ? 1 : count;
+            if (c == 'b' || c == '.') {
+                y += run;
+            } else if (c == 'o' || (c >= 'A' && c <= 'X')) {
+                for (long i = 0; i < run; i++) {
+                    builder.add(x, y++);
+                }
+            } else if (c >= 'p' && c <= 'y') {
+                // Prefix of a multi-state cell, the run applies to the state which follows
+                continue;
+            } else if (c == '$') {
+                x += run;
+                y = 0;
+            } else if (c == '!') {
+                return;
+            } else if (c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+                throw error("Unexpected character '" + (char) c + "'");
+            }
+            count = 0;
+        }
+    }
+
+    private void readRleHeader(final String header) {
+        long vertical = 0;
+        long horizontal = 0;
+        // The rule may hold commas itself, as in "B3/S23:T10,10", so only the commas before a key separate fields
+        for (String field : header.split(",(?=\\s*\\w+\\s*=)")) {
+            String[] pair = field.split("=");
+            if (pair.length != 2) {
+                throw error("Invalid header " + header);
+            }
+            String key = pair[0].trim();
+            try {
+                if (key.equals("x")) {
+                    horizontal = Long.parseLong(pair[1].trim());
+                } else if (key.equals("y")) {
+                    vertical = Long.parseLong(pair[1].trim());
+                } else if (key.equals("rule")) {
+                    // Anything after a colon describes the topology, which is not supported here
+                    builder.setRule(Rule.parse(pair[1].split(":")[0]));
+                }
+            } catch (IllegalArgumentException e) {
+                throw error("Invalid header " + header);
+            }
+        }
+        builder.setSize(vertical, horizontal);
+    }
+
+    /**
+     * Read a Life 1.06 pattern: one {@code column row} pair of a live cell per line,
+     * lines starting with {@code #} being comments.
+     */
+    private void readLife106() throws IOException {
+        int c;
+        while ((c = next()) >= 0) {
+            if (c == '#') {
+                readLine();
+                continue;
+            }
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                continue;
+            }
+            long column = readNumber(c);
+            c = skipBlanks();
+            long row = readNumber(c);
+            builder.add(row, column);
+        }
+    }
+
+    /**
+     * Read a plain text pattern: one row per line, {@code O}, {@code *} or {@code 1} being
+     * a live cell and any other character a dead cell. Lines starting with {@code !} are comments.
+     */
+    private void readPlaintext() throws IOException {
+        long x = 0;
+        long y = 0;
+        long horizontal = 0;
+        int c;
+        while ((c = next()) >= 0) {
+            if (y == 0 && c == '!') {
+                readLine();
+                continue;
+            }
+            if (c == '\n') {
+                x++;
+                y = 0;
+            } else if (c != '\r') {
+                if (c == 'O' || c == '*' || c == '1') {
+                    builder.add(x, y);
+                }
+                horizontal = Math.max(horizontal, ++y);
+            }
+        }
+        builder.setSize(y > 0 ? x + 1 : x, horizontal);
+    }
+
+    /**
+     * Read a signed decimal number.
+     *
+     * @param first The first character of the number
+     * @return The number
+     */
+    private long readNumber(final int first) throws IOException {
+        boolean negative = first == '-';
+        int c = negative || first == '+' ? next() : first;
+        if (c < '0' || c > '9') {
+            throw error("Number expected");
+        }
+        long value = 0;
+        while (c >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            c = next();
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * @return The first character which is not a space or a tab
+     */
+    private int skipBlanks() throws IOException {
+        int c = next();
+        while (c == ' ' || c == '\t') {
+            c = next();
+        }
+        return c;
+    }
+
+    /**
+     * Read the rest of the current line.
+     *
+     * @return The characters up to the end of the line, without the line feed
+     */
+    private String readLine() throws IOException {
+        StringBuilder text = new StringBuilder();
+        int c;
+        while ((c = next()) >= 0 && c != '\n') {
+            if (c != '\r') {
+                text.append((char) c);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * @return The next byte of the channel, or {@code -1} at the end of the channel
+     */
+    private int next() throws IOException {
+        if (!buffer.hasRemaining()) {
+            buffer.clear();
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            buffer.flip();
+            if (read < 0) {
+                return -1;
+            }
+        }
+        int c = buffer.get() & 0xFF;
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private IllegalArgumentException error(final String message) {
+        return new IllegalArgumentException(message + " at line " + line);
+    }
+}
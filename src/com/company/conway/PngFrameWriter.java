@@ -0,0 +1,158 @@
+package com.company.conway;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writer of every frame as a PNG file of a directory, {@code frame-000000.png} then {@code frame-000001.png}...
+ * <p>
+ *     The images are indexed-colour with one bit per pixel and a white and black palette, so a row of
+ *     the image is the bits of a row of the frame in the opposite order within each byte: the words are
+ *     copied with their bits reversed, without ever looking at a single cell.
+ */
+final class PngFrameWriter implements FrameWriter {
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    // Palette of the dead and the live cells
+    private static final byte[] PALETTE = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0, 0, 0};
+
+    final private Path directory;
+
+    final private int vertical;
+
+    final private int horizontal;
+
+    final private int wordsPerRow;
+
+    // The filtered rows of the image, a filter type byte followed by the pixels of every row
+    final private byte[] raw;
+
+    final private Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+    final private CRC32 crc = new CRC32();
+
+    // Words of a row in big endian order, with their bits reversed
+    final private ByteBuffer row;
+
+    final private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+    private byte[] compressed;
+
+    private int frames;
+
+    /**
+     * Create a writer of frames to a directory, created if needed.
+     *
+     * @param directory the directory of the frames
+     * @param vertical the number of rows of the frames
+     * @param horizontal the number of columns of the frames
+     * @throws IOException if the directory can not be created
+     * @throws IllegalArgumentException if the frames are empty or too large for a single array
+     */
+    PngFrameWriter(final Path directory, final int vertical, final int horizontal) throws IOException {
+        long rowBytes = 1 + ((horizontal + 7L) >>> 3);
+        if (vertical < 1 || horizontal < 1 || rowBytes * vertical > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException();
+        }
+        this.directory = Files.createDirectories(directory);
+        this.vertical = vertical;
+        this.horizontal = horizontal;
+        this.wordsPerRow = (horizontal + 63) >>> 6;
+        this.raw = new byte[(int) (rowBytes * vertical)];
+        this.row = ByteBuffer.allocate(wordsPerRow * Long.BYTES);
+        this.compressed = new byte[Math.max(1024, raw.length / 8)];
+    }
+
+    @Override
+    public void write(final long[] frame) throws IOException {
+        int rowBytes = (horizontal + 7) >>> 3;
+        int position = 0;
+        for (int i = 0; i < vertical; i++) {
+            row.clear();
+            for (int k = 0; k < wordsPerRow; k++) {
+                // Column 0 becomes the most significant bit of the first byte
+                row.putLong(Long.reverse(frame[i * wordsPerRow + k]));
+            }
+            raw[position++] = 0;
+            System.arraycopy(row.array(), 0, raw, position, rowBytes);
+            position += rowBytes;
+        }
+
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+
+        Path path = directory.resolve(String.format("frame-%06d.png", frames++));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.clear();
+            buffer.put(SIGNATURE);
+            ByteBuffer header = ByteBuffer.allocate(13);
+            header.putInt(horizontal).putInt(vertical)
+                    // Bit depth 1, indexed colour, deflate, adaptive filtering, no interlace
+                    .put((byte) 1).put((byte) 3).put((byte) 0).put((byte) 0).put((byte) 0);
+            chunk(channel, "IHDR", header.array(), header.capacity());
+            chunk(channel, "PLTE", PALETTE, PALETTE.length);
+            chunk(channel, "IDAT", compressed, length);
+            chunk(channel, "IEND", new byte[0], 0);
+            flush(channel);
+        }
+    }
+
+    /**
+     * Append a chunk to the buffer, flushing it to the channel when it is full.
+     */
+    private void chunk(final FileChannel channel, final String type, final byte[] data, final int length)
+            throws IOException {
+        byte[] name = type.getBytes(StandardCharsets.US_ASCII);
+        crc.reset();
+        crc.update(name);
+        crc.update(data, 0, length);
+
+        ensure(channel, 8);
+        buffer.putInt(length).put(name);
+        int offset = 0;
+        while (offset < length) {
+            ensure(channel, 1);
+            int count = Math.min(buffer.remaining(), length - offset);
+            buffer.put(data, offset, count);
+            offset += count;
+        }
+        ensure(channel, 4);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    private void ensure(final FileChannel channel, final int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel);
+        }
+    }
+
+    private void flush(final FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() {
+        deflater.end();
+    }
+}
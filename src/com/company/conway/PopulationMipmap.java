@@ -0,0 +1,108 @@
+package com.company.conway;
+
+/**
+ * Number of live cells per square block of a region of the plane, at several zoom levels.
+ * <p>
+ *     Level 0 counts the cells of blocks of {@code 8x8} cells, and every next level counts
+ *     blocks twice as wide and high, up to the level whose single block covers the whole region.
+ *     The counts are updated incrementally from the cells changed by an engine, each change
+ *     costing one update per level, so reading any level never scans the cells again.
+ *     Cells outside of the region are ignored.
+ */
+class PopulationMipmap implements CellListener {
+    // The width and height in cells of the blocks of level 0 is 1 << BASE_SHIFT
+    static final int BASE_SHIFT = 3;
+
+    // The position of the north west cell of the region on the plane
+    final private long top;
+
+    final private long left;
+
+    final private int vertical;
+
+    final private int horizontal;
+
+    // Number of blocks per row at each level
+    final private int[] blockColumns;
+
+    // Population of the blocks of each level, row after row
+    final private int[][] populations;
+
+    /**
+     * Create the counts of an empty region.
+     *
+     * @param top The x position of the north west cell of the region
+     * @param left The y position of the north west cell of the region
+     * @param vertical The number of rows of the region
+     * @param horizontal The number of columns of the region
+     * @throws IllegalArgumentException if the region is empty
+     */
+    PopulationMipmap(final long top, final long left, final int vertical, final int horizontal) {
+        if (vertical < 1 || horizontal < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.top = top;
+        this.left = left;
+        this.vertical = vertical;
+        this.horizontal = horizontal;
+
+        int levels = 1;
+        while ((long) vertical > 1L << (BASE_SHIFT + levels - 1) || (long) horizontal > 1L << (BASE_SHIFT + levels - 1)) {
+            levels++;
+        }
+        blockColumns = new int[levels];
+        populations = new int[levels][];
+        for (int level = 0; level < levels; level++) {
+            int shift = BASE_SHIFT + level;
+            int rows = (int) ((vertical + (1L << shift) - 1) >> shift);
+            blockColumns[level] = (int) ((horizontal + (1L << shift) - 1) >> shift);
+            populations[level] = new int[rows * blockColumns[level]];
+        }
+    }
+
+    @Override
+    public void cellChanged(final long x, final long y, final boolean alive) {
+        long i = x - top;
+        long j = y - left;
+        if (i < 0 || i >= vertical || j < 0 || j >= horizontal) {
+            return;
+        }
+        int delta = alive ? 1 : -1;
+        for (int level = 0; level < populations.length; level++) {
+            int shift = BASE_SHIFT + level;
+            populations[level][(int) (i >> shift) * blockColumns[level] + (int) (j >> shift)] += delta;
+        }
+    }
+
+    /**
+     * @return The number of zoom levels
+     */
+    int getLevels() {
+        return populations.length;
+    }
+
+    /**
+     * @return The width and height in cells of the blocks of the given level
+     */
+    static int getBlockSize(final int level) {
+        return 1 << (BASE_SHIFT + level);
+    }
+
+    /**
+     * Get the number of live cells of a block.
+     *
+     * @param level The zoom level
+     * @param x The x position on the plane of any cell of the block
+     * @param y The y position on the plane of any cell of the block
+     * @return The number of live cells of the block, {@code 0} for blocks outside of the region
+     */
+    int getPopulation(final int level, final long x, final long y) {
+        long i = x - top;
+        long j = y - left;
+        if (i < 0 || i >= vertical || j < 0 || j >= horizontal) {
+            return 0;
+        }
+        int shift = BASE_SHIFT + level;
+        return populations[level][(int) (i >> shift) * blockColumns[level] + (int) (j >> shift)];
+    }
+}
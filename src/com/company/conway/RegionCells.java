@@ -0,0 +1,104 @@
+package com.company.conway;
+
+/**
+ * The cells of a rectangular region of an engine, packed as words and kept up to date as a {@link CellListener}.
+ * <p>
+ *     The words are laid out row after row: every row starts on a new word, and bit {@code b} of word
+ *     {@code k} of a row is the cell in column {@code 64 * k + b} of the region, {@code 1} for a live cell.
+ *     The aligned words reported by the word based engines are copied at once, the others cell by cell.
+ *     Optionally, the words changed since the marks were last cleared are marked in a bitmap, so the
+ *     changes of a generation are found without comparing the whole region.
+ */
+final class RegionCells implements CellListener {
+    // The position of the north west cell of the region on the plane
+    final private long top;
+
+    final private long left;
+
+    final private int vertical;
+
+    final private int horizontal;
+
+    final private int wordsPerRow;
+
+    final private long[] words;
+
+    // Bit i marks the word i as changed, or null if the changes are not marked
+    final private long[] changeMarks;
+
+    /**
+     * Create an empty region.
+     *
+     * @param top The x position of the north west cell of the region
+     * @param left The y position of the north west cell of the region
+     * @param vertical The number of rows of the region
+     * @param horizontal The number of columns of the region
+     * @param marking {@code true} to mark the changed words
+     * @throws IllegalArgumentException if the region is empty or too large for a single array
+     */
+    RegionCells(final long top, final long left, final int vertical, final int horizontal, final boolean marking) {
+        long count = (long) vertical * ((horizontal + 63) >>> 6);
+        if (vertical < 1 || horizontal < 1 || count > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException();
+        }
+        this.top = top;
+        this.left = left;
+        this.vertical = vertical;
+        this.horizontal = horizontal;
+        this.wordsPerRow = (horizontal + 63) >>> 6;
+        this.words = new long[(int) count];
+        this.changeMarks = marking ? new long[(int) ((count + 63) >>> 6)] : null;
+    }
+
+    /**
+     * @return The words of the region in the current generation, which must not be modified
+     */
+    long[] getWords() {
+        return words;
+    }
+
+    /**
+     * @return The marks of the changed words, bit {@code i % 64} of mark {@code i / 64} for the word {@code i},
+     * cleared by the caller; or {@code null} if the changes are not marked
+     */
+    long[] getChangeMarks() {
+        return changeMarks;
+    }
+
+    @Override
+    public void cellChanged(final long x, final long y, final boolean alive) {
+        long i = x - top;
+        long j = y - left;
+        if (i < 0 || i >= vertical || j < 0 || j >= horizontal) {
+            return;
+        }
+        int index = (int) i * wordsPerRow + (int) (j >>> 6);
+        if (alive) {
+            words[index] |= 1L << j;
+        } else {
+            words[index] &= ~(1L << j);
+        }
+        mark(index);
+    }
+
+    @Override
+    public void wordChanged(final long x, final long y, final long before, final long after) {
+        long i = x - top;
+        long j = y - left;
+        if ((j & 63) != 0 || i < 0 || i >= vertical || j < 0 || j >= horizontal) {
+            // Unaligned or partly outside of the region, cell by cell
+            CellListener.super.wordChanged(x, y, before, after);
+            return;
+        }
+        long mask = horizontal - j >= 64 ? -1L : (1L << (horizontal - j)) - 1;
+        int index = (int) i * wordsPerRow + (int) (j >>> 6);
+        words[index] = (words[index] & ~mask) | (after & mask);
+        mark(index);
+    }
+
+    private void mark(final int index) {
+        if (changeMarks != null) {
+            changeMarks[index >>> 6] |= 1L << index;
+        }
+    }
+}
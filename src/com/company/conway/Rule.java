@@ -0,0 +1,208 @@
+package com.company.conway;
+
+/**
+ * A Life-like rule in B/S notation, such as {@code B3/S23} for the Conway's Game Of Life
+ * or {@code B36/S23} for HighLife: a dead cell is born if its number of live neighbours is listed after
+ * {@code B}, a live cell survives if its number of live neighbours is listed after {@code S}, and every
+ * other cell is dead in the next generation.
+ * <p>
+ *     The rule is compiled into lookup tables so the engines apply it without branching:
+ *     a 512 entries table indexed by the 9 bit neighbourhood of a cell (bit {@code 3 * row + column}
+ *     of the 3x3 block, the cell itself being bit 4), and an 18 entries table indexed by the state
+ *     of the cell and its number of live neighbours. The word based engines use the same table
+ *     widened to words, all ones or all zeros, combined with the bit planes of the counts in
+ *     {@link BitKernel}.
+ * <p>
+ *     Rules with {@code B0} are not supported: they make the infinite dead background come alive.
+ */
+final class Rule {
+    // The bit of the cell itself in a neighbourhood
+    static final int CENTRE = 1 << 4;
+
+    // Masks of the Conway's rule, which the word based engines evolve with a dedicated kernel
+    private static final int CONWAY_BIRTH = 1 << 3;
+    private static final int CONWAY_SURVIVAL = (1 << 2) | (1 << 3);
+
+    static final Rule CONWAY = parse("B3/S23");
+
+    // Bit k is set if a dead cell with k live neighbours is born
+    final private int birth;
+
+    // Bit k is set if a live cell with k live neighbours survives
+    final private int survival;
+
+    // Next state of a cell by 9 bit neighbourhood
+    final private byte[] byNeighbourhood;
+
+    // Next state of a cell at index 9 * state + live neighbours
+    final private byte[] byCount;
+
+    // The same next states as words of 64 equal bits, for the word based engines
+    final private long[] countMasks;
+
+    private Rule(final int birth, final int survival) {
+        if ((birth & 1) != 0) {
+            throw new IllegalArgumentException("Rules with B0 are not supported");
+        }
+        this.birth = birth;
+        this.survival = survival;
+
+        byCount = new byte[18];
+        countMasks = new long[18];
+        for (int count = 0; count <= 8; count++) {
+            byCount[count] = (byte) ((birth >>> count) & 1);
+            byCount[9 + count] = (byte) ((survival >>> count) & 1);
+        }
+        for (int i = 0; i < byCount.length; i++) {
+            countMasks[i] = -(long) byCount[i];
+        }
+        byNeighbourhood = new byte[512];
+        for (int neighbourhood = 0; neighbourhood < 512; neighbourhood++) {
+            int state = (neighbourhood & CENTRE) >>> 4;
+            byNeighbourhood[neighbourhood] = byCount[9 * state + Integer.bitCount(neighbourhood & ~CENTRE)];
+        }
+    }
+
+    /**
+     * Parse a rule in B/S notation ({@code B36/S23}), case insensitive, or in the
+     * older S/B notation ({@code 23/36}).
+     *
+     * @param notation The rule
+     * @return The rule
+     * @throws IllegalArgumentException if the notation is invalid or the rule has {@code B0}
+     */
+    static Rule parse(final String notation) {
+        String[] parts = notation.trim().toUpperCase().split("/", -1);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid rule " + notation);
+        }
+        String births;
+        String survivals;
+        if (parts[0].startsWith("B") && parts[1].startsWith("S")) {
+            births = parts[0].substring(1);
+            survivals = parts[1].substring(1);
+        } else if (parts[0].startsWith("S") && parts[1].startsWith("B")) {
+            survivals = parts[0].substring(1);
+            births = parts[1].substring(1);
+        } else {
+            survivals = parts[0];
+            births = parts[1];
+        }
+        return new Rule(counts(births, notation), counts(survivals, notation));
+    }
+
+    /**
+     * Rebuild a rule from the value of {@link #getCode()}.
+     *
+     * @param code the birth mask in the low 9 bits and the survival mask in the next 9 bits
+     * @return The rule
+     * @throws IllegalArgumentException if the code is invalid or the rule has {@code B0}
+     */
+    static Rule of(final int code) {
+        if ((code >>> 18) != 0) {
+            throw new IllegalArgumentException("Invalid rule code " + code);
+        }
+        return new Rule(code & 0x1FF, code >>> 9);
+    }
+
+    private static int counts(final String digits, final String notation) {
+        int mask = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            char c = digits.charAt(i);
+            if (c < '0' || c > '8') {
+                throw new IllegalArgumentException("Invalid rule " + notation);
+            }
+            mask |= 1 << (c - '0');
+        }
+        return mask;
+    }
+
+    /**
+     * @param neighbourhood The 9 bit neighbourhood of a cell, the cell itself being {@link #CENTRE}
+     * @return {@code 1} if the cell is alive in the next generation; otherwise {@code 0}
+     */
+    int next(final int neighbourhood) {
+        return byNeighbourhood[neighbourhood];
+    }
+
+    /**
+     * @param state {@code 1} if the cell is alive; otherwise {@code 0}
+     * @param count The number of live neighbours of the cell
+     * @return {@code 1} if the cell is alive in the next generation; otherwise {@code 0}
+     */
+    int next(final int state, final int count) {
+        return byCount[9 * state + count];
+    }
+
+    /**
+     * @return The next state of 64 cells of the same state and count of live neighbours at index
+     * {@code 9 * state + count}: all ones if they are alive in the next generation, otherwise zero;
+     * the array must not be modified
+     */
+    long[] getCountMasks() {
+        return countMasks;
+    }
+
+    /**
+     * @return {@code true} if a dead cell with {@code count} live neighbours is born
+     */
+    boolean isBirth(final int count) {
+        return ((birth >>> count) & 1) != 0;
+    }
+
+    /**
+     * @return {@code true} if a live cell with {@code count} live neighbours survives
+     */
+    boolean isSurvival(final int count) {
+        return ((survival >>> count) & 1) != 0;
+    }
+
+    /**
+     * @return The smallest number of live neighbours giving birth to a cell, {@code 9} if no cell is ever born
+     */
+    int getMinimumBirth() {
+        return birth == 0 ? 9 : Integer.numberOfTrailingZeros(birth);
+    }
+
+    boolean isConway() {
+        return birth == CONWAY_BIRTH && survival == CONWAY_SURVIVAL;
+    }
+
+    /**
+     * @return The birth mask in the low 9 bits and the survival mask in the next 9 bits
+     */
+    int getCode() {
+        return birth | (survival << 9);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Rule rule = (Rule) o;
+        return birth == rule.birth && survival == rule.survival;
+    }
+
+    @Override
+    public int hashCode() {
+        return getCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("B");
+        for (int count = 0; count <= 8; count++) {
+            if (isBirth(count)) {
+                builder.append(count);
+            }
+        }
+        builder.append("/S");
+        for (int count = 0; count <= 8; count++) {
+            if (isSurvival(count)) {
+                builder.append(count);
+            }
+        }
+        return builder.toString();
+    }
+}
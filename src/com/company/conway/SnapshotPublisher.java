@@ -0,0 +1,109 @@
+package com.company.conway;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free publication of the complete generations of an engine to any number of reader threads.
+ * <p>
+ *     The simulation thread fills a buffer with the words of a finished generation and publishes it
+ *     as a {@link GenerationSnapshot} through an {@link AtomicReference}. Readers acquire the latest
+ *     snapshot by taking a reference on it, read it as long as they need and close it; they never
+ *     see a generation being computed, and they never make the simulation thread wait. The buffers
+ *     are reference counted: the buffer of a snapshot goes back to a free list once it is replaced and
+ *     closed by all of its readers, and the simulation thread allocates a new buffer only when every
+ *     recycled one is still being read.
+ */
+final class SnapshotPublisher {
+    // Number of free buffers kept for the next generations, the other ones are left to the garbage collector
+    private static final int MAXIMUM_FREE_BUFFERS = 4;
+
+    final private int vertical;
+
+    final private int horizontal;
+
+    // Number of words of a buffer
+    final private int length;
+
+    final private AtomicReference<GenerationSnapshot> latest = new AtomicReference<GenerationSnapshot>();
+
+    // Buffers of the recycled snapshots
+    final private ConcurrentLinkedQueue<long[]> free = new ConcurrentLinkedQueue<long[]>();
+
+    final private AtomicInteger freeCount = new AtomicInteger();
+
+    /**
+     * Create a publisher of the generations of a grid.
+     *
+     * @param vertical The number of rows of the grid
+     * @param horizontal The number of columns of the grid
+     * @throws IllegalArgumentException if the grid does not fit in a single array of words
+     */
+    SnapshotPublisher(final int vertical, final int horizontal) {
+        long words = ((long) vertical * horizontal + 63) >>> 6;
+        if (vertical < 1 || horizontal < 1 || words > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException();
+        }
+        this.vertical = vertical;
+        this.horizontal = horizontal;
+        this.length = (int) words;
+    }
+
+    /**
+     * Get a buffer to fill with the next generation, from the simulation thread only.
+     *
+     * @return The cleared words of a buffer, bit {@code x * horizontal + y} being the cell {@code (x, y)}
+     */
+    long[] buffer() {
+        long[] words = free.poll();
+        if (words == null) {
+            return new long[length];
+        }
+        freeCount.decrementAndGet();
+        Arrays.fill(words, 0);
+        return words;
+    }
+
+    /**
+     * Publish a generation, from the simulation thread only.
+     *
+     * @param generation The number of generations evolved since the seed
+     * @param population The number of live cells
+     * @param words The buffer given by {@link #buffer()}, filled with the generation, which must not be modified anymore
+     */
+    void publish(final long generation, final long population, final long[] words) {
+        GenerationSnapshot previous = latest.getAndSet(
+                new GenerationSnapshot(this, generation, population, vertical, horizontal, words));
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Acquire the latest generation, from any thread.
+     *
+     * @return The latest snapshot, to be closed once read, or {@code null} if nothing was published yet
+     */
+    GenerationSnapshot acquire() {
+        while (true) {
+            GenerationSnapshot snapshot = latest.get();
+            // A snapshot replaced and recycled meanwhile can not be retained, the next one is tried
+            if (snapshot == null || snapshot.retain()) {
+                return snapshot;
+            }
+        }
+    }
+
+    /**
+     * Take back the buffer of a snapshot nobody holds anymore, from any thread.
+     */
+    void recycle(final long[] words) {
+        if (freeCount.incrementAndGet() <= MAXIMUM_FREE_BUFFERS) {
+            free.offer(words);
+        } else {
+            freeCount.decrementAndGet();
+        }
+    }
+}
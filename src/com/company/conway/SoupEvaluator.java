@@ -0,0 +1,260 @@
+package com.company.conway;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Reusable evolution of random soups until they stabilise.
+ * <p>
+ *     A soup is a square of random cells placed at the centre of a bounded field, laid out in
+ *     words like {@link BitwiseGameOfLife} and evolved by {@link BitKernel}. Only the rows between
+ *     the first and the last live row, plus one on each side, are evolved, so a small soup does not
+ *     pay for the whole field. The field is allocated once and cleared between two soups, an
+ *     evaluator being owned by a single worker thread.
+ * <p>
+ *     Each generation gets a hash, the sum of a mix of every non-zero word with its position, and
+ *     the last {@value #HISTORY} generations are kept in a {@link CycleHistory} without translations,
+ *     which finds the period the soup settles in as it does for {@link CycleDetector}. Since the cells
+ *     outside of the field are always dead, the escaping spaceships only settle once they crash into its
+ *     border and their travel counts in the lifespan: lifespans only compare soups evolved in fields of the
+ *     same size.
+ */
+final class SoupEvaluator {
+    // Number of generations kept in the history, the longest period detected
+    static final int HISTORY = 64;
+
+    final private int size;
+
+    final private double density;
+
+    final private int field;
+
+    final private Rule rule;
+
+    final private long maxGenerations;
+
+    // Words of the current and the next generation, with a zero row above and below the field
+    // and a zero word at the end of every row
+    private long[] currentGeneration;
+
+    private long[] tempGeneration;
+
+    final private int wordsPerRow;
+
+    final private int stride;
+
+    final private long lastWordMask;
+
+    // The first and the last row holding a live cell, first > last when there is none
+    private int firstRow;
+
+    private int lastRow;
+
+    // Hash and population of the last generations
+    final private CycleHistory history = new CycleHistory(HISTORY, false);
+
+    // Outcome of the last soup
+    private long lifespan;
+
+    private long population;
+
+    private int period;
+
+    /**
+     * Create an evaluator.
+     *
+     * @param size the width and height of the soups
+     * @param density the probability of a cell of a soup to be alive
+     * @param field the width and height of the field the soups evolve in
+     * @param rule the rule the soups evolve with
+     * @param maxGenerations the number of generations after which a soup is given up
+     * @throws IllegalArgumentException if the soup does not fit in the field or {@code maxGenerations} is not positive
+     */
+    SoupEvaluator(final int size, final double density, final int field, final Rule rule, final long maxGenerations) {
+        if (size < 1 || field < size || maxGenerations < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.size = size;
+        this.density = density;
+        this.field = field;
+        this.rule = rule;
+        this.maxGenerations = maxGenerations;
+
+        wordsPerRow = (field + 63) >>> 6;
+        stride = wordsPerRow + 1;
+        lastWordMask = (field & 63) == 0 ? -1L : (1L << (field & 63)) - 1;
+        currentGeneration = new long[(field + 2) * stride];
+        tempGeneration = new long[(field + 2) * stride];
+    }
+
+    /**
+     * Evolve a soup until it stabilises or {@code maxGenerations} are evolved.
+     *
+     * @param random the generator of the cells of the soup, as given by {@link SoupSearch#random(long, long)}
+     */
+    void evaluate(final SplittableRandom random) {
+        seed(random);
+        history.clear();
+        long generation = 0;
+        while (true) {
+            long count = population();
+            if (count == 0) {
+                finish(generation, 0, 1);
+                return;
+            }
+            // The field being bounded, the positions add nothing to the hash and stay out of the signature
+            if (history.record(hash(), count, 0, 0)) {
+                finish(history.getStart(), count, (int) history.getPeriod());
+                return;
+            }
+            if (generation == maxGenerations) {
+                finish(generation, count, 0);
+                return;
+            }
+            step();
+            generation++;
+        }
+    }
+
+    /**
+     * @return The generation the last soup became periodic, or {@code maxGenerations} if it did not
+     */
+    long getLifespan() {
+        return lifespan;
+    }
+
+    /**
+     * @return The population of the last soup once stable, or after {@code maxGenerations}
+     */
+    long getPopulation() {
+        return population;
+    }
+
+    /**
+     * @return The period the last soup ended with, {@code 1} for a still life or an empty field,
+     *          {@code 0} if it did not stabilise
+     */
+    int getPeriod() {
+        return period;
+    }
+
+    private void finish(final long lifespan, final long population, final int period) {
+        this.lifespan = lifespan;
+        this.population = population;
+        this.period = period;
+    }
+
+    /**
+     * Clear the field and place a new soup at its centre.
+     */
+    private void seed(final SplittableRandom random) {
+        // The next array is always all dead between two generations
+        Arrays.fill(currentGeneration, 0);
+        int offset = (field - size) / 2;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (random.nextDouble() < density) {
+                    int y = offset + j;
+                    currentGeneration[(offset + i + 1) * stride + (y >>> 6)] |= 1L << y;
+                }
+            }
+        }
+        firstRow = offset;
+        lastRow = offset + size - 1;
+        shrink();
+    }
+
+    /**
+     * Compute the next generation of the rows around the live cells.
+     */
+    private void step() {
+        int from = Math.max(0, firstRow - 1);
+        int to = Math.min(field - 1, lastRow + 1);
+        final long[] cur = currentGeneration;
+        for (int row = from; row <= to; row++) {
+            final int c = (row + 1) * stride;
+            final int n = c - stride;
+            final int s = c + stride;
+            long nw = 0, w = 0, sw = 0;
+            long nc = cur[n], cc = cur[c], sc = cur[s];
+            for (int k = 0; k < wordsPerRow; k++) {
+                long ne = cur[n + k + 1];
+                long ce = cur[c + k + 1];
+                long se = cur[s + k + 1];
+
+                tempGeneration[c + k] = BitKernel.evolve(rule, nw, nc, ne, w, cc, ce, sw, sc, se);
+
+                nw = nc;
+                nc = ne;
+                w = cc;
+                cc = ce;
+                sw = sc;
+                sc = se;
+            }
+            tempGeneration[c + wordsPerRow - 1] &= lastWordMask;
+        }
+        // Only the live rows of the previous generation are cleared, the next array staying all dead
+        if (firstRow <= lastRow) {
+            Arrays.fill(cur, (firstRow + 1) * stride, (lastRow + 2) * stride, 0);
+        }
+        long[] words = currentGeneration;
+        currentGeneration = tempGeneration;
+        tempGeneration = words;
+        firstRow = from;
+        lastRow = to;
+        shrink();
+    }
+
+    /**
+     * Move the first and the last live rows inwards past the dead rows.
+     */
+    private void shrink() {
+        while (firstRow <= lastRow && isRowEmpty(firstRow)) {
+            firstRow++;
+        }
+        while (lastRow >= firstRow && isRowEmpty(lastRow)) {
+            lastRow--;
+        }
+    }
+
+    private boolean isRowEmpty(final int row) {
+        int c = (row + 1) * stride;
+        for (int k = 0; k < wordsPerRow; k++) {
+            if (currentGeneration[c + k] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The hash of the current generation, independent of the rows scanned
+     */
+    private long hash() {
+        long hash = 0;
+        for (int c = (firstRow + 1) * stride, end = (lastRow + 2) * stride; c < end; c++) {
+            long word = currentGeneration[c];
+            if (word != 0) {
+                hash += mix(word ^ (c * 0x9E3779B97F4A7C15L));
+            }
+        }
+        return hash;
+    }
+
+    private long population() {
+        long count = 0;
+        for (int c = (firstRow + 1) * stride, end = (lastRow + 2) * stride; c < end; c++) {
+            count += Long.bitCount(currentGeneration[c]);
+        }
+        return count;
+    }
+
+    /**
+     * @return The finaliser of the 64 bits MurmurHash3, spreading every bit of the value over the result
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+}
@@ -0,0 +1,259 @@
+package com.company.conway;
+
+import com.company.util.Leaderboard;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Search of random soups, ranked by their lifespan or by their final population.
+ * <p>
+ *     Soup {@code i} of a search is drawn from a generator seeded with the seed of the search and
+ *     {@code i}, so every soup can be drawn again alone and a search gives the same results whatever
+ *     the number of workers. The soups are split in batches evolved on a {@link ForkJoinPool}, the
+ *     work stealing evening out the soups which live much longer than the others. Every worker
+ *     thread reuses its own {@link SoupEvaluator}, so evaluating a soup allocates nothing but its
+ *     result, and the results are offered to a shared {@link Leaderboard} which can be read at any
+ *     time while the search runs.
+ * <p>
+ *     Options are given as {@code key=value} arguments, for example
+ *     {@code soups=1000000 seed=42 size=16 density=0.5 rank=lifespan top=10 report=5000}.
+ *     The best soups are printed as plain text patterns, which {@link HeadlessRunner} can evolve again.
+ */
+public class SoupSearch {
+    // Number of soups below which a batch is evaluated without splitting it further
+    private static final int BATCH = 64;
+
+    /**
+     * Ranking by lifespan, then by population.
+     */
+    static final Comparator<Soup> BY_LIFESPAN = Comparator.comparingLong((Soup soup) -> soup.lifespan)
+            .thenComparingLong(soup -> soup.population)
+            .thenComparing(Comparator.comparingLong((Soup soup) -> soup.index).reversed());
+
+    /**
+     * Ranking by population, then by lifespan.
+     */
+    static final Comparator<Soup> BY_POPULATION = Comparator.comparingLong((Soup soup) -> soup.population)
+            .thenComparingLong(soup -> soup.lifespan)
+            .thenComparing(Comparator.comparingLong((Soup soup) -> soup.index).reversed());
+
+    final private long seed;
+
+    final private int size;
+
+    final private double density;
+
+    final private Leaderboard<Soup> leaderboard;
+
+    final private ThreadLocal<SoupEvaluator> evaluators;
+
+    final private LongAdder evaluated = new LongAdder();
+
+    /**
+     * Create a search.
+     *
+     * @param seed the seed of the soups
+     * @param size the width and height of the soups
+     * @param density the probability of a cell of a soup to be alive
+     * @param field the width and height of the field the soups evolve in
+     * @param rule the rule the soups evolve with
+     * @param maxGenerations the number of generations after which a soup is given up
+     * @param ranking the order of the soups, the greatest being the best
+     * @param top the number of best soups kept
+     * @throws IllegalArgumentException if the soup does not fit in the field, or a count is not positive
+     */
+    SoupSearch(final long seed, final int size, final double density, final int field, final Rule rule,
+               final long maxGenerations, final Comparator<Soup> ranking, final int top) {
+        // Fail on the calling thread rather than on the first worker
+        new SoupEvaluator(size, density, field, rule, maxGenerations);
+        this.seed = seed;
+        this.size = size;
+        this.density = density;
+        this.leaderboard = new Leaderboard<Soup>(top, ranking);
+        this.evaluators = ThreadLocal.withInitial(() -> new SoupEvaluator(size, density, field, rule, maxGenerations));
+    }
+
+    /**
+     * Evaluate a range of soups, returning once all of them are ranked.
+     *
+     * @param from the index of the first soup
+     * @param to the index after the last soup
+     * @param pool the pool of the workers
+     */
+    void search(final long from, final long to, final ForkJoinPool pool) {
+        pool.invoke(new SearchRange(from, to));
+    }
+
+    /**
+     * @return The best soups so far, the best first
+     */
+    List<Soup> getBest() {
+        return leaderboard.best();
+    }
+
+    /**
+     * @return The number of soups evaluated so far
+     */
+    long getEvaluated() {
+        return evaluated.sum();
+    }
+
+    /**
+     * @return The cells of a soup, the cells of value {@code 1} being alive
+     */
+    byte[][] getCells(final long index) {
+        SplittableRandom random = random(seed, index);
+        byte[][] cells = new byte[size][size];
+        for (byte[] row : cells) {
+            for (int j = 0; j < size; j++) {
+                row[j] = (byte) (random.nextDouble() < density ? 1 : 0);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * @return The generator of the cells of a soup, drawn row after row
+     */
+    static SplittableRandom random(final long seed, final long index) {
+        // The streams of two seeds only share values after about 2^64 / (difference of the seeds) draws
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + index);
+    }
+
+    /**
+     * Running a search.
+     *
+     * @param args {@code key=value} options of the search
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new LinkedHashMap<String, String>();
+        options.put("soups", "100000");
+        options.put("seed", "1");
+        options.put("size", "16");
+        options.put("density", "0.5");
+        options.put("field", "256");
+        options.put("rule", "B3/S23");
+        options.put("generations", "20000");
+        options.put("rank", "lifespan");
+        options.put("top", "10");
+        options.put("workers", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        options.put("report", "5000");
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0 || !options.containsKey(arg.substring(0, separator))) {
+                throw new IllegalArgumentException("Unknown option " + arg + ", expected one of " + options.keySet());
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        Comparator<Soup> ranking;
+        if (options.get("rank").equals("lifespan")) {
+            ranking = BY_LIFESPAN;
+        } else if (options.get("rank").equals("population")) {
+            ranking = BY_POPULATION;
+        } else {
+            throw new IllegalArgumentException("Unknown ranking " + options.get("rank") + ", expected lifespan or population");
+        }
+        long soups = Long.parseLong(options.get("soups"));
+        long seed = Long.parseLong(options.get("seed"));
+        long report = Long.parseLong(options.get("report"));
+        SoupSearch search = new SoupSearch(seed, Integer.parseInt(options.get("size")),
+                Double.parseDouble(options.get("density")), Integer.parseInt(options.get("field")),
+                Rule.parse(options.get("rule")), Long.parseLong(options.get("generations")), ranking,
+                Integer.parseInt(options.get("top")));
+
+        // The search runs on the pool while the main thread reports the best soup so far
+        ForkJoinPool pool = new ForkJoinPool(Integer.parseInt(options.get("workers")));
+        long start = System.nanoTime();
+        Thread runner = new Thread(() -> search.search(0, soups, pool), "soup-search");
+        runner.start();
+        do {
+            runner.join(report);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long evaluated = search.getEvaluated();
+            List<Soup> best = search.getBest();
+            System.out.printf("soups %d (%.0f/s) best %s%n", evaluated, evaluated / seconds,
+                    best.isEmpty() ? "none" : best.get(0));
+        } while (runner.isAlive());
+        pool.shutdown();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d soups in %.3f s, %.0f soups/hour%n", soups, seconds, soups / seconds * 3600);
+        for (Soup soup : search.getBest()) {
+            System.out.println("!" + soup);
+            for (byte[] row : search.getCells(soup.index)) {
+                StringBuilder line = new StringBuilder();
+                for (byte cell : row) {
+                    line.append(cell == 1 ? 'O' : '.');
+                }
+                System.out.println(line);
+            }
+        }
+    }
+
+    /**
+     * The outcome of a soup.
+     */
+    static final class Soup {
+        final long index;
+
+        final long lifespan;
+
+        final long population;
+
+        // The period the soup ended with, 0 if it did not stabilise
+        final int period;
+
+        Soup(final long index, final long lifespan, final long population, final int period) {
+            this.index = index;
+            this.lifespan = lifespan;
+            this.population = population;
+            this.period = period;
+        }
+
+        @Override
+        public String toString() {
+            return "soup " + index + ": lifespan " + lifespan + ", population " + population
+                    + (period == 0 ? ", not stable" : ", period " + period);
+        }
+    }
+
+    /**
+     * Task evaluating a range of soups, split in halves until it is small enough.
+     */
+    private final class SearchRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+
+        private final long to;
+
+        SearchRange(final long from, final long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH) {
+                SoupEvaluator evaluator = evaluators.get();
+                for (long index = from; index < to; index++) {
+                    evaluator.evaluate(random(seed, index));
+                    leaderboard.offer(new Soup(index, evaluator.getLifespan(), evaluator.getPopulation(),
+                            evaluator.getPeriod()));
+                }
+                evaluated.add(to - from);
+            } else {
+                long middle = (from + to) >>> 1;
+                invokeAll(new SearchRange(from, middle), new SearchRange(middle, to));
+            }
+        }
+    }
+}
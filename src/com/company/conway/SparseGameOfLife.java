@@ -0,0 +1,264 @@
+package com.company.conway;
+
+import com.company.util.LongHashSet;
+import com.company.util.LongIntHashMap;
+
+/**
+ * Allocation-free variant of {@link ConwayGameOfLife} on an infinite grid.
+ * <p>
+ *     Live cells are kept as packed {@link CellKey} values in primitive hash sets.
+ *     Each generation scatters every live cell into the neighbour counters of its
+ *     eight neighbours in a single pass, then applies the rule to the counted cells.
+ *     The sets and the counters are reused between generations, so once they have
+ *     grown to the size of the pattern a generation does not allocate anything.
+ */
+class SparseGameOfLife implements LifeEngine {
+    // Storing state of the current generation system
+    private LongHashSet currentGeneration;
+
+    // Using to store temporarily the state of the next generation
+    // to avoid allocating new generation at each step time
+    private LongHashSet tempGeneration;
+
+    // Number of live neighbours of every cell with at least one live neighbour
+    private final LongIntHashMap neighbourCounts;
+
+    private int horizontal;
+
+    private int vertical;
+
+    final private Rule rule;
+
+    private long generation;
+
+    // Receivers of the changed cells
+    final private CellListeners listeners = new CellListeners();
+
+    /**
+     * Initialize the current state of the system with a given seed.
+     *
+     * @param seedOfTheSystem seed of the system
+     * @throws UnsupportedOperationException throw {@link UnsupportedOperationException}
+     * if the input {@code null} value for {@code seedOfTheSystem}
+     */
+    public SparseGameOfLife(final byte[][] seedOfTheSystem) {
+        this(Pattern.fromSeed(seedOfTheSystem));
+    }
+
+    /**
+     * Initialize the current state of the system with the live cells of a pattern.
+     *
+     * @param pattern the pattern of the seed
+     */
+    SparseGameOfLife(final Pattern pattern) {
+        currentGeneration = new LongHashSet();
+        tempGeneration = new LongHashSet();
+        neighbourCounts = new LongIntHashMap();
+        rule = pattern.getRule();
+        initSystemState(pattern);
+    }
+
+    /**
+     * Restore a system from the cells of a checkpoint.
+     *
+     * @param vertical The number of rows of the seed
+     * @param horizontal The number of columns of the seed
+     * @param cells The {@link CellKey} of the live cells of the current generation
+     * @param generation The number of generations evolved since the seed
+     * @param rule The rule the system evolves with
+     */
+    SparseGameOfLife(final int vertical, final int horizontal, final long[] cells, final long generation,
+                     final Rule rule) {
+        this.vertical = vertical;
+        this.horizontal = horizontal;
+        this.generation = generation;
+        this.rule = rule;
+
+        currentGeneration = new LongHashSet();
+        tempGeneration = new LongHashSet();
+        neighbourCounts = new LongIntHashMap();
+        for (long key : cells) {
+            currentGeneration.add(key);
+        }
+    }
+
+    /**
+     * Transition to the next generation by applying the {@link Rule} of the system.
+     */
+    public void evolve() {
+        final LongHashSet current = currentGeneration;
+        final LongIntHashMap counts = neighbourCounts;
+
+        // Scatter every live cell into the counters of its eight neighbours
+        counts.clear();
+        for (int slot = current.nextSlot(0); slot >= 0; slot = current.nextSlot(slot + 1)) {
+            long key = current.keyAt(slot);
+            int x = CellKey.x(key);
+            int y = CellKey.y(key);
+            counts.addTo(CellKey.pack(x - 1, y - 1), 1);
+            counts.addTo(CellKey.pack(x - 1, y), 1);
+            counts.addTo(CellKey.pack(x - 1, y + 1), 1);
+            counts.addTo(CellKey.pack(x, y - 1), 1);
+            counts.addTo(CellKey.pack(x, y + 1), 1);
+            counts.addTo(CellKey.pack(x + 1, y - 1), 1);
+            counts.addTo(CellKey.pack(x + 1, y), 1);
+            counts.addTo(CellKey.pack(x + 1, y + 1), 1);
+        }
+
+        // Cells without any live neighbour are not counted, the dead ones stay dead in the next generation
+        tempGeneration.clear();
+        for (int slot = counts.nextSlot(0); slot >= 0; slot = counts.nextSlot(slot + 1)) {
+            long key = counts.keyAt(slot);
+            int state = current.contains(key) ? 1 : 0;
+            if (rule.next(state, counts.valueAt(slot)) != 0) {
+                tempGeneration.add(key);
+            }
+        }
+        if (rule.isSurvival(0)) {
+            // The isolated live cells are not counted either, but they survive
+            for (int slot = current.nextSlot(0); slot >= 0; slot = current.nextSlot(slot + 1)) {
+                long key = current.keyAt(slot);
+                if (!counts.containsKey(key)) {
+                    tempGeneration.add(key);
+                }
+            }
+        }
+
+        if (!listeners.isEmpty()) {
+            reportChanges(current, tempGeneration);
+        }
+
+        // Swap the next generation to the current generation for the next step time
+        currentGeneration = tempGeneration;
+        tempGeneration = current;
+        generation++;
+    }
+
+    @Override
+    public void step() {
+        evolve();
+    }
+
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Check whether the given cell is alive in the current generation.
+     *
+     * @param x The x position of the cell
+     * @param y The y position of the cell
+     * @return {@code true} if the cell is alive; otherwise {@code false}
+     */
+    @Override
+    public boolean isAlive(final long x, final long y) {
+        if (x != (int) x || y != (int) y) {
+            return false;
+        }
+        return currentGeneration.contains(CellKey.pack((int) x, (int) y));
+    }
+
+    /**
+     * @return The {@link CellKey} of the live cells of the current generation
+     */
+    long[] getCells() {
+        long[] cells = new long[currentGeneration.size()];
+        int i = 0;
+        for (int slot = currentGeneration.nextSlot(0); slot >= 0; slot = currentGeneration.nextSlot(slot + 1)) {
+            cells[i++] = currentGeneration.keyAt(slot);
+        }
+        return cells;
+    }
+
+    int getVertical() {
+        return vertical;
+    }
+
+    int getHorizontal() {
+        return horizontal;
+    }
+
+    @Override
+    public boolean isBounded() {
+        return false;
+    }
+
+    @Override
+    public long getPopulation() {
+        return currentGeneration.size();
+    }
+
+    @Override
+    public void addCellListener(final CellListener listener) {
+        listeners.add(listener);
+        for (int slot = currentGeneration.nextSlot(0); slot >= 0; slot = currentGeneration.nextSlot(slot + 1)) {
+            long key = currentGeneration.keyAt(slot);
+            listener.cellChanged(CellKey.x(key), CellKey.y(key), true);
+        }
+    }
+
+    @Override
+    public void removeCellListener(final CellListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Report the cells which differ between two generations to the listeners.
+     *
+     * @param current The current generation
+     * @param next The next generation
+     */
+    private void reportChanges(final LongHashSet current, final LongHashSet next) {
+        for (int slot = current.nextSlot(0); slot >= 0; slot = current.nextSlot(slot + 1)) {
+            long key = current.keyAt(slot);
+            if (!next.contains(key)) {
+                listeners.cellChanged(CellKey.x(key), CellKey.y(key), false);
+            }
+        }
+        for (int slot = next.nextSlot(0); slot >= 0; slot = next.nextSlot(slot + 1)) {
+            long key = next.keyAt(slot);
+            if (!current.contains(key)) {
+                listeners.cellChanged(CellKey.x(key), CellKey.y(key), true);
+            }
+        }
+    }
+
+    /**
+     * Set the current state of the system from given pattern.
+     *
+     * @param pattern pattern of the seed of the system
+     */
+    private void initSystemState(final Pattern pattern) {
+        vertical = pattern.getVertical();
+        horizontal = pattern.getHorizontal();
+
+        for (int i = 0; i < pattern.size(); i++) {
+            currentGeneration.add(CellKey.pack(pattern.x(i), pattern.y(i)));
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < vertical; i++) {
+            for (int j = 0; j < horizontal; j++) {
+                if (isAlive(i, j)) {
+                    // Present the live cell by black square character
+                    builder.append("◾");
+                } else {
+                    // Present the dead cell by white square character
+                    builder.append("◽");
+                }
+            }
+            builder.append("\n");
+        }
+        return builder.toString();
+    }
+}
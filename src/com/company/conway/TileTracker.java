@@ -0,0 +1,132 @@
+package com.company.conway;
+
+import java.util.Arrays;
+
+/**
+ * Change tracking of a grid at the granularity of square tiles.
+ * <p>
+ *     A cell can only change in the next generation if a cell in its neighbourhood
+ *     changed in the last one, so a tile has to be evaluated only if the tile itself
+ *     or one of its eight neighbour tiles changed in the last generation.
+ *     The other tiles are still lifes (or dead), and the engines skip them.
+ * <p>
+ *     On a grid whose borders are glued together, a change on a border also activates the tiles
+ *     along the opposite border, all of them since a glued border may be mirrored.
+ */
+class TileTracker {
+    // The width and height of a tile in cells
+    static final int TILE_SIZE = 64;
+
+    final private int tileRows;
+
+    final private int tileColumns;
+
+    // Whether the opposite borders of the grid are neighbours
+    final private boolean wrapped;
+
+    // Tiles changed by the generation being computed
+    private boolean[] changed;
+
+    // Tiles to evaluate in the generation being computed
+    private boolean[] active;
+
+    /**
+     * Create the tiles covering a grid, all of them active for the first generation.
+     *
+     * @param vertical The number of rows of the grid
+     * @param horizontal The number of columns of the grid
+     */
+    TileTracker(final int vertical, final int horizontal) {
+        this(vertical, horizontal, false);
+    }
+
+    /**
+     * Create the tiles covering a grid, all of them active for the first generation.
+     *
+     * @param vertical The number of rows of the grid
+     * @param horizontal The number of columns of the grid
+     * @param wrapped {@code true} if the opposite borders of the grid are glued together
+     */
+    TileTracker(final int vertical, final int horizontal, final boolean wrapped) {
+        this.wrapped = wrapped;
+        tileRows = (vertical + TILE_SIZE - 1) / TILE_SIZE;
+        tileColumns = (horizontal + TILE_SIZE - 1) / TILE_SIZE;
+        changed = new boolean[tileRows * tileColumns];
+        active = new boolean[tileRows * tileColumns];
+        Arrays.fill(active, true);
+    }
+
+    int getTileRows() {
+        return tileRows;
+    }
+
+    int getTileColumns() {
+        return tileColumns;
+    }
+
+    /**
+     * @return {@code true} if the tile has to be evaluated in the generation being computed
+     */
+    boolean isActive(final int tileRow, final int tileColumn) {
+        return active[tileRow * tileColumns + tileColumn];
+    }
+
+    /**
+     * Record that at least one cell of the tile changed in the generation being computed.
+     */
+    void markChanged(final int tileRow, final int tileColumn) {
+        changed[tileRow * tileColumns + tileColumn] = true;
+    }
+
+    /**
+     * Record that every tile changed in the generation being computed.
+     */
+    void markAllChanged() {
+        Arrays.fill(changed, true);
+    }
+
+    /**
+     * Finish the generation: the tiles next to a changed tile become the active tiles of the next one.
+     */
+    void nextGeneration() {
+        boolean[] next = active;
+        Arrays.fill(next, false);
+        for (int i = 0; i < tileRows; i++) {
+            for (int j = 0; j < tileColumns; j++) {
+                if (!changed[i * tileColumns + j]) {
+                    continue;
+                }
+                int minX = i <= 0 ? 0 : i - 1;
+                int maxX = i >= tileRows - 1 ? tileRows - 1 : i + 1;
+                int minY = j <= 0 ? 0 : j - 1;
+                int maxY = j >= tileColumns - 1 ? tileColumns - 1 : j + 1;
+                for (int x = minX; x <= maxX; x++) {
+                    for (int y = minY; y <= maxY; y++) {
+                        next[x * tileColumns + y] = true;
+                    }
+                }
+                if (wrapped) {
+                    activateOppositeBorders(next, i, j);
+                }
+            }
+        }
+        active = next;
+        Arrays.fill(changed, false);
+    }
+
+    /**
+     * Activate the tiles along the borders opposite to the borders a changed tile lies on.
+     */
+    private void activateOppositeBorders(final boolean[] next, final int tileRow, final int tileColumn) {
+        if (tileRow == 0 || tileRow == tileRows - 1) {
+            int opposite = tileRow == 0 ? tileRows - 1 : 0;
+            Arrays.fill(next, opposite * tileColumns, (opposite + 1) * tileColumns, true);
+        }
+        if (tileColumn == 0 || tileColumn == tileColumns - 1) {
+            int opposite = tileColumn == 0 ? tileColumns - 1 : 0;
+            for (int x = 0; x < tileRows; x++) {
+                next[x * tileColumns + opposite] = true;
+            }
+        }
+    }
+}
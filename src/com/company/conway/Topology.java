@@ -0,0 +1,55 @@
+package com.company.conway;
+
+/**
+ * How the borders of a finite grid are glued together.
+ * <p>
+ *     The engines supporting a topology surround the grid with a halo of one cell, refreshed
+ *     from the opposite borders once per generation, so the cells on the borders are evolved
+ *     exactly like the inner cells, without any boundary check.
+ */
+enum Topology {
+    /**
+     * The cells outside of the grid are always dead.
+     */
+    BOUNDED(0),
+
+    /**
+     * The north border is glued to the south border and the west border to the east border,
+     * so a pattern leaving the grid on one side comes back on the opposite side.
+     */
+    TORUS(1),
+
+    /**
+     * The west border is glued to the east border as on a torus, but the north border is glued
+     * to the south border upside down: a pattern leaving the grid to the north comes back
+     * from the south mirrored, the cell of column {@code y} being next to the column {@code horizontal - 1 - y}.
+     */
+    KLEIN_BOTTLE(2);
+
+    final private int code;
+
+    Topology(final int code) {
+        this.code = code;
+    }
+
+    /**
+     * @return The code of the topology in the checkpoints
+     */
+    int getCode() {
+        return code;
+    }
+
+    /**
+     * @param code The code of the topology, as given by {@link #getCode()}
+     * @return The topology
+     * @throws IllegalArgumentException if there is no topology with that code
+     */
+    static Topology of(final int code) {
+        for (Topology topology : values()) {
+            if (topology.code == code) {
+                return topology;
+            }
+        }
+        throw new IllegalArgumentException("Unknown topology " + code);
+    }
+}
@@ -0,0 +1,281 @@
+package com.company.conway;
+
+/**
+ * SIMD variant of {@link BitwiseGameOfLife}, evolving several words of a row at once.
+ * <p>
+ *     The words are laid out as in {@link BitwiseGameOfLife}, with one more zero padding word at the
+ *     start of every row, so the west and east neighbours of a run of words are themselves runs of
+ *     words one word before and after it. The runs are evolved by a {@link VectorKernel}, applying the
+ *     full-adder logic of {@link BitKernel} lane-wise: an AVX-512 machine evolves 8 words, 512 cells,
+ *     with every vector instruction.
+ * <p>
+ *     The vector kernel is only used when the system property {@value #VECTOR_PROPERTY} is {@code true},
+ *     the kernel was compiled from {@code src-vector}, the {@code jdk.incubator.vector} module is present
+ *     at run time and the preferred vectors hold at least {@value #MINIMUM_LANES} words. Otherwise, and for the words of a row left over after the last
+ *     whole vector, the words are evolved one at a time by {@link BitKernel}.
+ */
+class VectorGameOfLife implements LifeEngine {
+    // The system property enabling the vector kernel
+    static final String VECTOR_PROPERTY = "conway.vector";
+
+    // The smallest number of lanes worth the vector kernel, narrower vectors are emulated slowly
+    private static final int MINIMUM_LANES = 4;
+
+    // Storing state of the current generation system
+    private long[] currentGeneration;
+
+    // Using to store temporarily the state of the next generation
+    // to avoid allocating new generation at each step time
+    private long[] tempGeneration;
+
+    final private int horizontal;
+
+    final private int vertical;
+
+    // Number of words holding the cells of a row
+    final private int wordsPerRow;
+
+    // Distance between two consecutive rows in the word arrays (including the two padding words)
+    final private int stride;
+
+    // Mask of the columns inside the grid for the last word of a row
+    final private long lastWordMask;
+
+    // The kernel evolving the rows by whole vectors, null to evolve them one word at a time
+    final private VectorKernel kernel;
+
+    final private Rule rule;
+
+    private long generation;
+
+    // Receivers of the changed cells
+    final private CellListeners listeners = new CellListeners();
+
+    /**
+     * Initialize the current state of the system with a given seed.
+     *
+     * @param seedOfTheSystem   seed of the system
+     * @throws UnsupportedOperationException throw {@link UnsupportedOperationException}
+     *          if the input {@code null} value for {@code seedOfTheSystem}
+     */
+    public VectorGameOfLife(final byte[][] seedOfTheSystem) {
+        this(Pattern.fromSeed(seedOfTheSystem));
+    }
+
+    /**
+     * Initialize the current state of the system with the live cells of a pattern.
+     *
+     * @param pattern the pattern of the seed, its grid being the grid of the system
+     * @throws IllegalArgumentException if the grid does not fit in a single array
+     */
+    VectorGameOfLife(final Pattern pattern) {
+        this(pattern, Boolean.getBoolean(VECTOR_PROPERTY) && isVectorSupported());
+    }
+
+    /**
+     * Initialize the current state of the system with the live cells of a pattern,
+     * choosing the kernel regardless of {@value #VECTOR_PROPERTY}.
+     *
+     * @param pattern the pattern of the seed, its grid being the grid of the system
+     * @param vectorized {@code true} to evolve the rows with the vector kernel
+     * @throws IllegalArgumentException if the grid does not fit in a single array
+     * @throws UnsupportedOperationException if {@code vectorized} is set but the vector kernel is not available
+     */
+    VectorGameOfLife(final Pattern pattern, final boolean vectorized) {
+        if (vectorized && Kernel.INSTANCE == null) {
+            throw new UnsupportedOperationException("The vector kernel is not available");
+        }
+        vertical = pattern.getVertical();
+        horizontal = pattern.getHorizontal();
+        rule = pattern.getRule();
+        this.kernel = vectorized ? Kernel.INSTANCE : null;
+        if ((long) (vertical + 2) * ((horizontal + 63) / 64 + 2) > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException();
+        }
+
+        wordsPerRow = (horizontal + 63) >>> 6;
+        stride = wordsPerRow + 2;
+        lastWordMask = (horizontal & 63) == 0 ? -1L : (1L << (horizontal & 63)) - 1;
+
+        currentGeneration = new long[(vertical + 2) * stride];
+        tempGeneration = new long[(vertical + 2) * stride];
+        setCurrentGeneration(pattern);
+    }
+
+    /**
+     * @return {@code true} if the vector kernel can run on this machine
+     */
+    static boolean isVectorSupported() {
+        return Kernel.INSTANCE != null && Kernel.INSTANCE.getLanes() >= MINIMUM_LANES;
+    }
+
+    /**
+     * @return {@code true} if the rows are evolved with the vector kernel
+     */
+    boolean isVectorized() {
+        return kernel != null;
+    }
+
+    /**
+     * Transition to the next generation by applying the {@link Rule} of the system.
+     */
+    public void nextGeneration() {
+        final boolean conway = rule.isConway();
+        for (int i = 0; i < vertical; i++) {
+            final int c = getIndex(i, 0);
+            int k = 0;
+            if (kernel != null) {
+                k = conway ? kernel.evolveRow(currentGeneration, tempGeneration, c, stride, wordsPerRow)
+                        : kernel.evolveRow(currentGeneration, tempGeneration, c, stride, wordsPerRow, rule);
+            }
+            evolveWords(c, k);
+            tempGeneration[c + wordsPerRow - 1] &= lastWordMask;
+        }
+        if (!listeners.isEmpty()) {
+            reportChanges(currentGeneration, tempGeneration);
+        }
+
+        // Swap the next generation to the current generation for the next step time
+        long[] words = currentGeneration;
+        currentGeneration = tempGeneration;
+        tempGeneration = words;
+        generation++;
+    }
+
+    /**
+     * Compute the next generation of the words of a row from the given one, one word at a time.
+     *
+     * @param c The index of the first word of the row
+     * @param from The first word of the row to evolve
+     */
+    private void evolveWords(final int c, final int from) {
+        final long[] cur = currentGeneration;
+        final int n = c - stride;
+        final int s = c + stride;
+        for (int k = from; k < wordsPerRow; k++) {
+            // The padding words at both ends of the row make k - 1 and k + 1 always readable
+            tempGeneration[c + k] = BitKernel.evolve(rule,
+                    cur[n + k - 1], cur[n + k], cur[n + k + 1],
+                    cur[c + k - 1], cur[c + k], cur[c + k + 1],
+                    cur[s + k - 1], cur[s + k], cur[s + k + 1]);
+        }
+    }
+
+    @Override
+    public void step() {
+        nextGeneration();
+    }
+
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public long getPopulation() {
+        long population = 0;
+        for (long word : currentGeneration) {
+            population += Long.bitCount(word);
+        }
+        return population;
+    }
+
+    @Override
+    public boolean isAlive(final long x, final long y) {
+        if (x < 0 || x >= vertical || y < 0 || y >= horizontal) {
+            return false;
+        }
+        return (currentGeneration[getIndex((int) x, (int) y)] & (1L << y)) != 0;
+    }
+
+    @Override
+    public void addCellListener(final CellListener listener) {
+        listeners.add(listener);
+        for (int i = 0; i < vertical; i++) {
+            int c = getIndex(i, 0);
+            for (int k = 0; k < wordsPerRow; k++) {
+                listener.wordChanged(i, (long) k << 6, 0, currentGeneration[c + k]);
+            }
+        }
+    }
+
+    @Override
+    public void removeCellListener(final CellListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Report the cells which differ between two generations to the listeners.
+     *
+     * @param before The words of the first generation
+     * @param after The words of the second generation
+     */
+    private void reportChanges(final long[] before, final long[] after) {
+        for (int i = 0; i < vertical; i++) {
+            int c = getIndex(i, 0);
+            for (int k = 0; k < wordsPerRow; k++) {
+                if (before[c + k] != after[c + k]) {
+                    listeners.wordChanged(i, (long) k << 6, before[c + k], after[c + k]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculate the index of the word holding the given cell.
+     *
+     * @param x The x position of the cell
+     * @param y The y position of the cell
+     * @return The index of the word of the cell in the word arrays
+     */
+    private int getIndex(final int x, final int y) {
+        return (x + 1) * stride + 1 + (y >>> 6);
+    }
+
+    /**
+     * Set the current state of the system from given pattern.
+     *
+     * @param pattern  pattern of the seed of the system
+     */
+    private void setCurrentGeneration(final Pattern pattern) {
+        for (int i = 0; i < pattern.size(); i++) {
+            int y = pattern.y(i);
+            currentGeneration[getIndex(pattern.x(i), y)] |= 1L << y;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < vertical; i++) {
+            for (int j = 0; j < horizontal; j++) {
+                if ((currentGeneration[getIndex(i, j)] & (1L << j)) != 0) {
+                    // Present the live cell by black square character
+                    builder.append("◾");
+                } else {
+                    // Present the dead cell by white square character
+                    builder.append("◽");
+                }
+            }
+            builder.append("\n");
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Holder of the vector kernel, loaded on the first use of the vector engine only.
+     */
+    private static final class Kernel {
+        static final VectorKernel INSTANCE = VectorKernel.load();
+
+        private Kernel() {
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.company.conway;
+
+/**
+ * The SIMD kernel of {@link VectorGameOfLife}, evolving the words of a row by whole vectors.
+ * <p>
+ *     The implementation is written on the incubating {@code jdk.incubator.vector} module, which a plain
+ *     {@code javac} does not resolve. It is kept in the separate {@code src-vector} source directory,
+ *     compiled with {@code --add-modules jdk.incubator.vector}, and loaded by {@link #load()} through
+ *     reflection, so the other sources neither compile nor link against the vector API.
+ */
+interface VectorKernel {
+    // The implementation of the kernel, from the src-vector source directory
+    String IMPLEMENTATION = "com.company.conway.VectorLanes";
+
+    /**
+     * @return The number of words evolved by a vector
+     */
+    int getLanes();
+
+    /**
+     * Compute the next generation of the whole vectors of a row under the Conway's rule.
+     *
+     * @param cur The words of the current generation
+     * @param next The words of the next generation
+     * @param c The index of the first word of the row
+     * @param stride The distance between two consecutive rows
+     * @param wordsPerRow The number of words of the row
+     * @return The first word of the row left to evolve, after the last whole vector
+     */
+    int evolveRow(long[] cur, long[] next, int c, int stride, int wordsPerRow);
+
+    /**
+     * Compute the next generation of the whole vectors of a row under any rule.
+     *
+     * @param cur The words of the current generation
+     * @param next The words of the next generation
+     * @param c The index of the first word of the row
+     * @param stride The distance between two consecutive rows
+     * @param wordsPerRow The number of words of the row
+     * @param rule The rule of the system
+     * @return The first word of the row left to evolve, after the last whole vector
+     */
+    int evolveRow(long[] cur, long[] next, int c, int stride, int wordsPerRow, Rule rule);
+
+    /**
+     * Load the kernel, if it was compiled and the vector module is present at run time.
+     *
+     * @return The kernel, or {@code null} if it is not available
+     */
+    static VectorKernel load() {
+        if (!ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            return null;
+        }
+        try {
+            return Class.forName(IMPLEMENTATION).asSubclass(VectorKernel.class)
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Not compiled from src-vector, or compiled against another vector API
+            return null;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.company.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A thread-safe board keeping the greatest elements offered to it, built on a
+ * {@linkplain BoundedPriorityQueue bounded priority queue}.
+ *
+ * <p>Any number of threads may {@linkplain #offer offer} elements while others read the
+ * {@linkplain #best() best elements so far}. Once the board is full, the least element it holds
+ * is published so an offer which would not make it to the board is rejected without taking the lock:
+ * most offers of a long search are rejected, so the threads rarely contend on the queue.
+ *
+ * @param <E> the type of elements held in this board
+ */
+public class Leaderboard<E> {
+
+    private final BoundedPriorityQueue<E> queue;
+
+    private final Comparator<? super E> comparator;
+
+    private final int capacity;
+
+    // The least element of the board once it is full, null before
+    private volatile E threshold;
+
+    /**
+     * Creates a {@code Leaderboard} keeping the greatest elements according to the specified comparator.
+     *
+     * @param capacity the number of elements kept by the board.
+     * @param comparator the comparator ordering the elements, the greatest ones being kept.
+     * @throws IllegalArgumentException if {@code capacity} is less than 1
+     * @throws NullPointerException if {@code comparator} is null
+     */
+    public Leaderboard(int capacity, Comparator<? super E> comparator) {
+        if (comparator == null) {
+            throw new NullPointerException();
+        }
+        this.queue = new BoundedPriorityQueue<E>(capacity, comparator);
+        this.comparator = comparator;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Offers an element to the board.
+     *
+     * @param e the element offered.
+     * @return {@code true} if the element made it to the board
+     * @throws NullPointerException if the specified element is null
+     */
+    public boolean offer(E e) {
+        E least = threshold;
+        if (least != null && comparator.compare(e, least) <= 0) {
+            return false;
+        }
+        synchronized (queue) {
+            boolean added = queue.add(e);
+            if (queue.size() == capacity) {
+                threshold = queue.peek();
+            }
+            return added;
+        }
+    }
+
+    /**
+     * @return the elements of the board, the greatest first
+     */
+    public List<E> best() {
+        List<E> elements;
+        synchronized (queue) {
+            elements = new ArrayList<E>(queue);
+        }
+        elements.sort(comparator.reversed());
+        return elements;
+    }
+
+    /**
+     * @return the greatest element of the board, or {@code null} if the board is empty
+     */
+    public E first() {
+        List<E> elements = best();
+        return elements.isEmpty() ? null : elements.get(0);
+    }
+}
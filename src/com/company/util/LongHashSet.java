@@ -0,0 +1,259 @@
+package com.company.util;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive {@code long} values based on open addressing with linear probing.
+ * Unlike a {@link java.util.HashSet} of {@link Long}, neither the insertion nor the
+ * lookup of an element allocates, and {@link #clear()} keeps the backing array so
+ * a set which is refilled with a similar number of elements never allocates again.
+ *
+ * <p>The {@code 0} value can not mark a free slot and an element at the same time,
+ * so the {@code 0} element, when present, lives in an extra slot at the end of the
+ * backing array. The elements are visited without allocating an iterator by walking
+ * the slots:
+ * <pre>
+ *     for (int slot = set.nextSlot(0); slot >= 0; slot = set.nextSlot(slot + 1)) {
+ *         long element = set.keyAt(slot);
+ *     }
+ * </pre>
+ */
+public class LongHashSet {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    /**
+     * Slots of the set, {@code 0} is a free slot except for the extra slot at {@code capacity}.
+     */
+    private long[] keys;
+
+    /**
+     * The number of slots, a power of two.
+     */
+    private int capacity;
+
+    /**
+     * The current number of elements in the set.
+     */
+    private int size;
+
+    /**
+     * Whether the {@code 0} element is in the set.
+     */
+    private boolean containsZero;
+
+    /**
+     * Creates an empty {@code LongHashSet} with the default initial capacity (16).
+     */
+    public LongHashSet() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an empty {@code LongHashSet} able to hold the given number of elements without growing.
+     *
+     * @param expectedSize the number of elements expected in the set
+     * @throws IllegalArgumentException if {@code expectedSize} is negative
+     */
+    public LongHashSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException();
+        }
+        capacity = tableSizeFor(expectedSize);
+        keys = new long[capacity + 1];
+    }
+
+    /**
+     * Adds the specified element to this set if it is not already present.
+     *
+     * @param key element to be added to this set
+     * @return {@code true} if this set did not already contain the specified element
+     */
+    public boolean add(long key) {
+        if (key == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            keys[capacity] = 0;
+            size++;
+            return true;
+        }
+
+        int mask = capacity - 1;
+        int slot = mix(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        if (++size > (capacity >>> 1)) {
+            rehash(capacity << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if this set contains the specified element.
+     *
+     * @param key element whose presence in this set is to be tested
+     * @return {@code true} if this set contains the specified element
+     */
+    public boolean contains(long key) {
+        if (key == 0) {
+            return containsZero;
+        }
+
+        int mask = capacity - 1;
+        int slot = mix(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the specified element from this set if it is present.
+     *
+     * @param key element to be removed from this set, if present
+     * @return {@code true} if this set contained the specified element
+     */
+    public boolean remove(long key) {
+        if (key == 0) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+
+        int mask = capacity - 1;
+        int slot = mix(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                shiftKeys(slot);
+                size--;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Removes all of the elements from this set, keeping its capacity.
+     */
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        Arrays.fill(keys, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    /**
+     * @return the number of elements in this set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} if this set contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Find the first occupied slot at or after the given slot.
+     *
+     * @param from the slot to start the search from
+     * @return The occupied slot, or {@code -1} if there is no more element
+     */
+    public int nextSlot(int from) {
+        for (int slot = from; slot < capacity; slot++) {
+            if (keys[slot] != 0) {
+                return slot;
+            }
+        }
+        return from <= capacity && containsZero ? capacity : -1;
+    }
+
+    /**
+     * @param slot an occupied slot returned by {@link #nextSlot(int)}
+     * @return The element stored in the slot
+     */
+    public long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Close the gap left by a removed element by shifting back the following elements of its cluster.
+     *
+     * @param slot the slot of the removed element
+     */
+    private void shiftKeys(int slot) {
+        int mask = capacity - 1;
+        while (true) {
+            int last = slot;
+            slot = (slot + 1) & mask;
+            long current;
+            while (true) {
+                if ((current = keys[slot]) == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+                int home = mix(current) & mask;
+                // Move the element back only if its home slot is not between the gap and its slot
+                if (last <= slot ? last >= home || home > slot : last >= home && home > slot) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[last] = current;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] old = keys;
+        int oldCapacity = capacity;
+        keys = new long[newCapacity + 1];
+        capacity = newCapacity;
+
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldCapacity; i++) {
+            long key = old[i];
+            if (key != 0) {
+                int slot = mix(key) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static int tableSizeFor(int expectedSize) {
+        int capacity = DEFAULT_INITIAL_CAPACITY;
+        while (capacity >>> 1 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,310 @@
+package com.company.util;
+
+import java.util.Arrays;
+
+/**
+ * A map from primitive {@code long} keys to primitive {@code int} values based on
+ * open addressing with linear probing, the counterpart of {@link LongHashSet}.
+ * Absent keys are mapped to {@code 0}, which makes the map a natural counter:
+ * {@link #addTo(long, int)} increments a key whether it is present or not.
+ *
+ * <p>The {@code 0} key lives in an extra slot at the end of the backing arrays
+ * and the entries are visited by walking the slots:
+ * <pre>
+ *     for (int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot + 1)) {
+ *         long key = map.keyAt(slot);
+ *         int value = map.valueAt(slot);
+ *     }
+ * </pre>
+ */
+public class LongIntHashMap {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    /**
+     * Key slots of the map, {@code 0} is a free slot except for the extra slot at {@code capacity}.
+     */
+    private long[] keys;
+
+    /**
+     * Values of the map, parallel to the key slots.
+     */
+    private int[] values;
+
+    /**
+     * The number of slots, a power of two.
+     */
+    private int capacity;
+
+    /**
+     * The current number of entries in the map.
+     */
+    private int size;
+
+    /**
+     * Whether the {@code 0} key is in the map.
+     */
+    private boolean containsZero;
+
+    /**
+     * Creates an empty {@code LongIntHashMap} with the default initial capacity (16).
+     */
+    public LongIntHashMap() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an empty {@code LongIntHashMap} able to hold the given number of entries without growing.
+     *
+     * @param expectedSize the number of entries expected in the map
+     * @throws IllegalArgumentException if {@code expectedSize} is negative
+     */
+    public LongIntHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException();
+        }
+        capacity = LongHashSet.tableSizeFor(expectedSize);
+        keys = new long[capacity + 1];
+        values = new int[capacity + 1];
+    }
+
+    /**
+     * Adds the given increment to the value of the key, an absent key being mapped to {@code 0}.
+     *
+     * @param key the key whose value is incremented
+     * @param increment the value to add
+     * @return The new value of the key
+     */
+    public int addTo(long key, int increment) {
+        int slot = insert(key);
+        return values[slot] += increment;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     */
+    public void put(long key, int value) {
+        // Find the slot first, the insertion may replace the arrays
+        int slot = insert(key);
+        values[slot] = value;
+    }
+
+    /**
+     * @param key the key whose associated value is to be returned
+     * @return The value of the key, or {@code 0} if the map contains no mapping for the key
+     */
+    public int get(long key) {
+        if (key == 0) {
+            return containsZero ? values[capacity] : 0;
+        }
+
+        int mask = capacity - 1;
+        int slot = LongHashSet.mix(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * @param key key whose presence in this map is to be tested
+     * @return {@code true} if this map contains a mapping for the specified key
+     */
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return containsZero;
+        }
+
+        int mask = capacity - 1;
+        int slot = LongHashSet.mix(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the mapping for a key from this map if it is present.
+     *
+     * @param key key whose mapping is to be removed from the map
+     * @return The previous value of the key, or {@code 0} if there was no mapping for the key
+     */
+    public int remove(long key) {
+        if (key == 0) {
+            if (!containsZero) {
+                return 0;
+            }
+            containsZero = false;
+            size--;
+            return values[capacity];
+        }
+
+        int mask = capacity - 1;
+        int slot = LongHashSet.mix(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                int value = values[slot];
+                shiftKeys(slot);
+                size--;
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * Removes all of the mappings from this map, keeping its capacity.
+     */
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        Arrays.fill(keys, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    /**
+     * @return the number of key-value mappings in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} if this map contains no key-value mappings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Find the first occupied slot at or after the given slot.
+     *
+     * @param from the slot to start the search from
+     * @return The occupied slot, or {@code -1} if there is no more entry
+     */
+    public int nextSlot(int from) {
+        for (int slot = from; slot < capacity; slot++) {
+            if (keys[slot] != 0) {
+                return slot;
+            }
+        }
+        return from <= capacity && containsZero ? capacity : -1;
+    }
+
+    /**
+     * @param slot an occupied slot returned by {@link #nextSlot(int)}
+     * @return The key stored in the slot
+     */
+    public long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * @param slot an occupied slot returned by {@link #nextSlot(int)}
+     * @return The value stored in the slot
+     */
+    public int valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Find the slot of the key, inserting it with a {@code 0} value if it is absent.
+     *
+     * @param key the key to find
+     * @return The slot of the key
+     */
+    private int insert(long key) {
+        if (key == 0) {
+            if (!containsZero) {
+                containsZero = true;
+                values[capacity] = 0;
+                size++;
+            }
+            return capacity;
+        }
+
+        int mask = capacity - 1;
+        int slot = LongHashSet.mix(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0) {
+            if (current == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = 0;
+        if (++size > (capacity >>> 1)) {
+            rehash(capacity << 1);
+            return insert(key);
+        }
+        return slot;
+    }
+
+    /**
+     * Close the gap left by a removed entry by shifting back the following entries of its cluster.
+     *
+     * @param slot the slot of the removed entry
+     */
+    private void shiftKeys(int slot) {
+        int mask = capacity - 1;
+        while (true) {
+            int last = slot;
+            slot = (slot + 1) & mask;
+            long current;
+            while (true) {
+                if ((current = keys[slot]) == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+                int home = LongHashSet.mix(current) & mask;
+                // Move the entry back only if its home slot is not between the gap and its slot
+                if (last <= slot ? last >= home || home > slot : last >= home && home > slot) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[slot];
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        int oldCapacity = capacity;
+        keys = new long[newCapacity + 1];
+        values = new int[newCapacity + 1];
+        keys[newCapacity] = oldKeys[oldCapacity];
+        values[newCapacity] = oldValues[oldCapacity];
+        capacity = newCapacity;
+
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldCapacity; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int slot = LongHashSet.mix(key) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}